@@ -1,22 +1,32 @@
 CREATE TABLE app_users (
                            id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-                           email varchar(100) NOT NULL UNIQUE,
+                           email varchar(100) NOT NULL,
                            role varchar(20) NOT NULL,
-                           login varchar(30) NOT NULL UNIQUE,
+                           login varchar(30) NOT NULL,
                            password varchar(100) NOT NULL,
-                           created_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP
+                           token_version int NOT NULL DEFAULT 0,
+                           created_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                           updated_at timestamp,
+                           CONSTRAINT app_users_email_key UNIQUE (email),
+                           CONSTRAINT app_users_login_key UNIQUE (login)
 );
 
+-- Идентификаторы задач выдаются блоками по 50 (pooled-lo), чтобы Hibernate мог пакетировать вставки
+CREATE SEQUENCE tasks_id_seq INCREMENT BY 50;
+
 CREATE TABLE tasks (
-                       id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                       id BIGINT DEFAULT nextval('tasks_id_seq') PRIMARY KEY,
                        title varchar(100) NOT NULL,
+                       normalized_title varchar(100) NOT NULL,
                        description varchar(500) NOT NULL,
                        status varchar(20) NOT NULL,
                        priority varchar(20) NOT NULL,
                        owner_id int NOT NULL REFERENCES app_users(id),
                        performer_id int REFERENCES app_users(id),
                        created_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
-                       updated_at timestamp
+                       updated_at timestamp,
+                       version bigint NOT NULL DEFAULT 0,
+                       CONSTRAINT tasks_normalized_title_key UNIQUE (normalized_title)
 );
 
 CREATE TABLE comments (
@@ -24,6 +34,7 @@ CREATE TABLE comments (
                           text varchar(1000) NOT NULL,
                           created_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
                           updated_at timestamp,
+                          version bigint NOT NULL DEFAULT 0,
                           user_id int NOT NULL REFERENCES app_users(id),
                           task_id int NOT NULL REFERENCES tasks(id) ON DELETE CASCADE
 );
@@ -46,10 +57,18 @@ CREATE INDEX idx_user_role ON app_users(role); -- Если будет поиск
 -- Для задач
 CREATE INDEX idx_task_owner ON tasks(owner_id);
 CREATE INDEX idx_task_performer ON tasks(performer_id);
-CREATE INDEX idx_task_status ON tasks(status); -- Если часты фильтры по статусу
+-- Для лент задач с keyset-пагинацией по (created_at, id)
+CREATE INDEX idx_task_created ON tasks(created_at DESC, id DESC);
+CREATE INDEX idx_task_status_created ON tasks(status, created_at DESC, id DESC);
+CREATE INDEX idx_task_priority_created ON tasks(priority, created_at DESC, id DESC);
+
+-- Для поиска задач по подстроке в названии и описании
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_task_title_trgm ON tasks USING GIN (title gin_trgm_ops);
+CREATE INDEX idx_task_description_trgm ON tasks USING GIN (description gin_trgm_ops);
 
 -- Для комментариев
-CREATE INDEX idx_comment_task ON comments(task_id);
+CREATE INDEX idx_comment_task_created ON comments(task_id, created_at DESC, id DESC); -- Для ленты комментариев задачи
 CREATE INDEX idx_comment_created ON comments(created_at); -- Для сортировки по дате
 
 INSERT INTO app_users (email,role,login,password)VALUES ('admin@mail.com','ADMIN','test-admin','$2a$10$FC/ku1NoR8EUJ3xrU1.zxuMto2927qAHJkCX1SVEldwgIleFCMuyK');
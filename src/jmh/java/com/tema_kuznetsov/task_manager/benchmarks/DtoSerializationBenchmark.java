@@ -0,0 +1,79 @@
+package com.tema_kuznetsov.task_manager.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tema_kuznetsov.task_manager.dto.comment.CommentResponseDto;
+import com.tema_kuznetsov.task_manager.dto.task.TaskResponseDto;
+import com.tema_kuznetsov.task_manager.models.Comment;
+import com.tema_kuznetsov.task_manager.models.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк построения {@link TaskResponseDto} и {@link CommentResponseDto} и их сериализации в JSON.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DtoSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectMapper objectMapper;
+    private Task task;
+    private Comment comment;
+    private TaskResponseDto taskDto;
+    private CommentResponseDto commentDto;
+    private List<TaskResponseDto> taskPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Fixtures.objectMapper();
+        task = Fixtures.task(1L);
+        comment = Fixtures.comment(1L, task);
+        taskDto = new TaskResponseDto(task);
+        commentDto = new CommentResponseDto(comment);
+        taskPage = new ArrayList<>();
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            taskPage.add(new TaskResponseDto(Fixtures.task(id)));
+        }
+    }
+
+    @Benchmark
+    public TaskResponseDto taskFromEntity() {
+        return new TaskResponseDto(task);
+    }
+
+    @Benchmark
+    public TaskResponseDto taskFromProjection() {
+        return new TaskResponseDto(task.getId(), task.getTitle(), task.getDescription(), task.getStatus(),
+                task.getPriority(), task.getCreatedAt(), task.getUpdatedAt(), task.getVersion(), 1L, 2L);
+    }
+
+    @Benchmark
+    public CommentResponseDto commentFromEntity() {
+        return new CommentResponseDto(comment);
+    }
+
+    @Benchmark
+    public byte[] serializeTask() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(taskDto);
+    }
+
+    @Benchmark
+    public byte[] serializeComment() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(commentDto);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE_SIZE)
+    public byte[] serializeTaskPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(taskPage);
+    }
+}
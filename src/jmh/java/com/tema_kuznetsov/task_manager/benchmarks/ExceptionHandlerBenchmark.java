@@ -0,0 +1,67 @@
+package com.tema_kuznetsov.task_manager.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tema_kuznetsov.task_manager.dto.task.TaskCreateDto;
+import com.tema_kuznetsov.task_manager.exceptions.taskException.TaskIdNotFoundException;
+import com.tema_kuznetsov.task_manager.util.ErrorResponse;
+import com.tema_kuznetsov.task_manager.util.GlobalExceptionHandler;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк формирования ответов об ошибках в {@link GlobalExceptionHandler}:
+ * создание исключения, вызов обработчика и сериализация {@link ErrorResponse}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private ObjectMapper objectMapper;
+    private MethodParameter parameter;
+    private TaskCreateDto dto;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        handler = new GlobalExceptionHandler();
+        objectMapper = Fixtures.objectMapper();
+        parameter = new MethodParameter(
+                ExceptionHandlerBenchmark.class.getDeclaredMethod("createTask", TaskCreateDto.class), 0);
+        dto = new TaskCreateDto();
+    }
+
+    @Benchmark
+    public byte[] notFound() throws JsonProcessingException {
+        ResponseEntity<ErrorResponse> response = handler.handleTaskIdNotFound(new TaskIdNotFoundException(42L));
+        return objectMapper.writeValueAsBytes(response.getBody());
+    }
+
+    @Benchmark
+    public byte[] validationFailed() throws JsonProcessingException {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(dto, "taskCreateDto");
+        bindingResult.addError(new FieldError("taskCreateDto", "title", "Название задачи обязательно"));
+        bindingResult.addError(new FieldError("taskCreateDto", "status",
+                "Допустимые статусы: OPEN, IN_PROGRESS, COMPLETED, CANCELLED"));
+        ResponseEntity<ErrorResponse> response = handler.handleValidationExceptions(
+                new MethodArgumentNotValidException(parameter, bindingResult));
+        return objectMapper.writeValueAsBytes(response.getBody());
+    }
+
+    /**
+     * Метод, параметр которого используется как источник {@link MethodArgumentNotValidException}.
+     */
+    @SuppressWarnings("unused")
+    private void createTask(TaskCreateDto dto) {
+    }
+}
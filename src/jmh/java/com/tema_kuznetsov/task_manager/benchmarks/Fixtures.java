@@ -0,0 +1,77 @@
+package com.tema_kuznetsov.task_manager.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tema_kuznetsov.task_manager.models.AppUser;
+import com.tema_kuznetsov.task_manager.models.Comment;
+import com.tema_kuznetsov.task_manager.models.Task;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Общие тестовые данные для бенчмарков.
+ */
+final class Fixtures {
+
+    static final String EMAIL = "owner@mail.com";
+    static final String JWT_SECRET = "benchmark-secret-key-that-is-long-enough-for-hs256";
+    static final long JWT_EXPIRATION = 3_600_000L;
+
+    private Fixtures() {
+    }
+
+    /**
+     * Создает пользователя с заданным идентификатором и ролью.
+     */
+    static AppUser user(Long id, String role) {
+        AppUser user = new AppUser();
+        user.setId(id);
+        user.setEmail(id == null || id == 1L ? EMAIL : "user" + id + "@mail.com");
+        user.setLogin("User" + id);
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuuJ3bXhU0cVxq1cN8h8T3F0m3V6xIFzXy");
+        user.setRole(role);
+        return user;
+    }
+
+    /**
+     * Создает задачу с владельцем и исполнителем, как после загрузки из базы данных.
+     */
+    static Task task(Long id) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle("Разработать API " + id);
+        task.setDescription("Добавить новые эндпоинты для задач и покрыть их тестами");
+        task.setStatus("IN_PROGRESS");
+        task.setPriority("HIGH");
+        task.setCreatedAt(LocalDateTime.of(2025, 4, 22, 16, 55, 43));
+        task.setUpdatedAt(LocalDateTime.of(2025, 4, 23, 10, 0, 0));
+        task.setOwner(user(1L, "ADMIN"));
+        task.setPerformer(user(2L, "USER"));
+        return task;
+    }
+
+    /**
+     * Создает комментарий к задаче.
+     */
+    static Comment comment(Long id, Task task) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setText("Проверил, все работает");
+        comment.setCreatedAt(LocalDateTime.of(2025, 4, 23, 11, 30, 0));
+        comment.setAuthor(task.getPerformer());
+        comment.setTask(task);
+        return comment;
+    }
+
+    /**
+     * Создает ObjectMapper с теми же настройками, что и {@code spring.jackson.*} в конфигурации приложения.
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .build();
+    }
+}
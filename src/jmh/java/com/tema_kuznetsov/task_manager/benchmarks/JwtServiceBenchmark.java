@@ -0,0 +1,74 @@
+package com.tema_kuznetsov.task_manager.benchmarks;
+
+import com.tema_kuznetsov.task_manager.security.CustomUserDetails;
+import com.tema_kuznetsov.task_manager.security.jwt.JwtService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк выпуска и проверки JWT токенов.
+ * Разбор сравнивается с кешем проверенных токенов и без него.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private JwtService uncachedJwtService;
+    private JwtService statelessJwtService;
+    private CustomUserDetails user;
+    private String token;
+    private String statelessToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(Fixtures.JWT_SECRET, Fixtures.JWT_EXPIRATION, 10_000, false,
+                new SimpleMeterRegistry());
+        uncachedJwtService = new JwtService(Fixtures.JWT_SECRET, Fixtures.JWT_EXPIRATION, 0, false,
+                new SimpleMeterRegistry());
+        statelessJwtService = new JwtService(Fixtures.JWT_SECRET, Fixtures.JWT_EXPIRATION, 10_000, true,
+                new SimpleMeterRegistry());
+        user = new CustomUserDetails(Fixtures.user(1L, "ADMIN"), List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        token = jwtService.generateToken(Fixtures.EMAIL);
+        statelessToken = statelessJwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(Fixtures.EMAIL);
+    }
+
+    @Benchmark
+    public String generateStatelessToken() {
+        return statelessJwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims parseCached() {
+        return jwtService.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public Claims parseUncached() {
+        return uncachedJwtService.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return jwtService.isTokenValid(token, Fixtures.EMAIL);
+    }
+
+    @Benchmark
+    public CustomUserDetails extractStatelessPrincipal() {
+        return statelessJwtService.extractPrincipal(statelessJwtService.extractAllClaims(statelessToken));
+    }
+}
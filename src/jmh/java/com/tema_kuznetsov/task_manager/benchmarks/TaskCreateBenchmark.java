@@ -0,0 +1,103 @@
+package com.tema_kuznetsov.task_manager.benchmarks;
+
+import com.tema_kuznetsov.task_manager.TaskManagerApplication;
+import com.tema_kuznetsov.task_manager.dto.task.TaskBulkResultDto;
+import com.tema_kuznetsov.task_manager.dto.task.TaskCreateDto;
+import com.tema_kuznetsov.task_manager.models.AppUser;
+import com.tema_kuznetsov.task_manager.repositories.TaskRepository;
+import com.tema_kuznetsov.task_manager.repositories.UserRepository;
+import com.tema_kuznetsov.task_manager.security.CustomUserDetails;
+import com.tema_kuznetsov.task_manager.services.TaskService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк создания задач по одной через {@link TaskService#createTask(TaskCreateDto)}
+ * и пакетом через {@link TaskService#createTasks(List)}.
+ * Поднимает контекст приложения с профилем {@code test} на H2; результат приводится к одной задаче.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TaskCreateBenchmark {
+
+    private static final int BATCH = 100;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private TaskRepository taskRepository;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TaskManagerApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql=WARN")
+                .run();
+        taskService = context.getBean(TaskService.class);
+        taskRepository = context.getBean(TaskRepository.class);
+
+        AppUser owner = Fixtures.user(null, "ADMIN");
+        context.getBean(UserRepository.class).save(owner);
+
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        CustomUserDetails principal = new CustomUserDetails(owner, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearTasks() {
+        taskRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void createOneByOne(Blackhole blackhole) {
+        for (TaskCreateDto dto : nextBatch()) {
+            blackhole.consume(taskService.createTask(dto));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<TaskBulkResultDto> createInBulk() {
+        return taskService.createTasks(nextBatch());
+    }
+
+    private List<TaskCreateDto> nextBatch() {
+        List<TaskCreateDto> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            TaskCreateDto dto = new TaskCreateDto();
+            dto.setTitle("Задача " + sequence++);
+            dto.setDescription("Описание задачи для бенчмарка");
+            dto.setStatus("OPEN");
+            dto.setPriority("MEDIUM");
+            batch.add(dto);
+        }
+        return batch;
+    }
+}
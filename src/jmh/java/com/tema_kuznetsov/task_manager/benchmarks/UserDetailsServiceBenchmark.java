@@ -0,0 +1,64 @@
+package com.tema_kuznetsov.task_manager.benchmarks;
+
+import com.tema_kuznetsov.task_manager.repositories.UserRepository;
+import com.tema_kuznetsov.task_manager.security.PrincipalCache;
+import com.tema_kuznetsov.task_manager.services.CustomUserDetailsService;
+import com.tema_kuznetsov.task_manager.services.UserIdentityRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Бенчмарк {@link CustomUserDetailsService#loadUserByUsername(String)} с кешем пользователей и без него.
+ * Репозиторий заменен Mockito-заглушкой, поэтому измеряется стоимость сервиса без обращения к базе данных.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UserDetailsServiceBenchmark {
+
+    private CustomUserDetailsService cachedService;
+    private CustomUserDetailsService uncachedService;
+
+    @Setup
+    @SuppressWarnings("deprecation")
+    public void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findUserByEmail(Fixtures.EMAIL)).thenReturn(Optional.of(Fixtures.user(1L, "ADMIN")));
+
+        cachedService = createService(userRepository, true);
+        uncachedService = createService(userRepository, false);
+    }
+
+    @Benchmark
+    public UserDetails loadCached() {
+        return cachedService.loadUserByUsername(Fixtures.EMAIL);
+    }
+
+    @Benchmark
+    public UserDetails loadUncached() {
+        return uncachedService.loadUserByUsername(Fixtures.EMAIL);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static CustomUserDetailsService createService(UserRepository userRepository, boolean cacheEnabled) {
+        PrincipalCache principalCache = new PrincipalCache(cacheEnabled, Duration.ofMinutes(5), 10_000,
+                new SimpleMeterRegistry());
+        CustomUserDetailsService service = new CustomUserDetailsService(NoOpPasswordEncoder.getInstance(), principalCache,
+                mock(UserIdentityRegistry.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        return service;
+    }
+}
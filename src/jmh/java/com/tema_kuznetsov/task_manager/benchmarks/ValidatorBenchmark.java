@@ -0,0 +1,87 @@
+package com.tema_kuznetsov.task_manager.benchmarks;
+
+import com.tema_kuznetsov.task_manager.annotations.taskAnnotations.NullableTaskPriority;
+import com.tema_kuznetsov.task_manager.annotations.taskAnnotations.NullableTaskStatus;
+import com.tema_kuznetsov.task_manager.annotations.userAnnotations.NullableEmail;
+import com.tema_kuznetsov.task_manager.validators.taskValidators.NullablePriorityValidator;
+import com.tema_kuznetsov.task_manager.validators.taskValidators.NullableStatusValidator;
+import com.tema_kuznetsov.task_manager.validators.userValidators.NullableEmailValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк валидаторов {@link NullableStatusValidator}, {@link NullablePriorityValidator}
+ * и {@link NullableEmailValidator}.
+ * Корректные значения проверяются напрямую, а некорректные через Hibernate Validator,
+ * чтобы учесть построение сообщения об ошибке.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ValidatorBenchmark {
+
+    private final NullableStatusValidator statusValidator = new NullableStatusValidator();
+    private final NullablePriorityValidator priorityValidator = new NullablePriorityValidator();
+    private final NullableEmailValidator emailValidator = new NullableEmailValidator();
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private Payload validPayload;
+    private Payload invalidPayload;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validPayload = new Payload("IN_PROGRESS", "HIGH", Fixtures.EMAIL);
+        invalidPayload = new Payload("DONE", "URGENT", "not-an-email");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean statusDirect() {
+        return statusValidator.isValid("IN_PROGRESS", null);
+    }
+
+    @Benchmark
+    public boolean priorityDirect() {
+        return priorityValidator.isValid("HIGH", null);
+    }
+
+    @Benchmark
+    public boolean emailDirect() {
+        return emailValidator.isValid(Fixtures.EMAIL, null);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Payload>> validBean() {
+        return validator.validate(validPayload);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Payload>> invalidBean() {
+        return validator.validate(invalidPayload);
+    }
+
+    /**
+     * Объект с полями, помеченными проверяемыми аннотациями.
+     */
+    public record Payload(
+            @NullableTaskStatus String status,
+            @NullableTaskPriority String priority,
+            @NullableEmail String email) {
+    }
+}
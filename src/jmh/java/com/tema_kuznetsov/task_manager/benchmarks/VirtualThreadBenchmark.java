@@ -0,0 +1,93 @@
+package com.tema_kuznetsov.task_manager.benchmarks;
+
+import com.tema_kuznetsov.task_manager.util.concurrency.BoundedDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк пропускной способности обработки запросов в пуле платформенных потоков
+ * (как пул Tomcat по умолчанию, 200 потоков) и в виртуальных потоках.
+ * Каждый запрос блокируется вне базы данных (сеть, хеширование), затем выполняет запрос к H2
+ * через пул Hikari, удерживая соединение. В обоих режимах используется один и тот же источник данных —
+ * пул, обернутый {@link BoundedDataSource}, как в приложении, — поэтому режимы отличаются только потоками.
+ * Одна операция — пакет из {@link #REQUESTS} запросов.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VirtualThreadBenchmark {
+
+    private static final int REQUESTS = 1000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int POOL_SIZE = 10;
+    private static final long BLOCKING_MILLIS = 5;
+    private static final long QUERY_MILLIS = 1;
+    private static final Duration ACQUIRE_TIMEOUT = Duration.ofSeconds(2);
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    private HikariDataSource hikari;
+    private DataSource dataSource;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:virtual-threads;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(POOL_SIZE);
+        hikari = new HikariDataSource(config);
+        dataSource = new BoundedDataSource(hikari, POOL_SIZE, ACQUIRE_TIMEOUT);
+
+        executor = "virtual".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        hikari.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public int handleRequests() throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(executor.submit(this::handleRequest));
+        }
+        int sum = 0;
+        for (Future<Integer> future : futures) {
+            sum += future.get();
+        }
+        return sum;
+    }
+
+    private int handleRequest() throws Exception {
+        Thread.sleep(BLOCKING_MILLIS);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT 1")) {
+            Thread.sleep(QUERY_MILLIS);
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
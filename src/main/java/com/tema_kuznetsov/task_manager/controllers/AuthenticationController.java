@@ -11,6 +11,7 @@ import com.tema_kuznetsov.task_manager.dto.security.JwtResponseDto;
 import com.tema_kuznetsov.task_manager.dto.user.UserCreateDto;
 import com.tema_kuznetsov.task_manager.dto.user.UserResponseDto;
 import com.tema_kuznetsov.task_manager.models.AppUser;
+import com.tema_kuznetsov.task_manager.security.CustomUserDetails;
 import com.tema_kuznetsov.task_manager.security.jwt.JwtService;
 import com.tema_kuznetsov.task_manager.services.CustomUserDetailsService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,7 +21,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -59,15 +60,15 @@ public class AuthenticationController {
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody JwtRequestDto loginRequest) {
         try {
-            authenticationManager.authenticate(
+            Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             loginRequest.getEmail(),
                             loginRequest.getPassword()
                     )
             );
 
-            UserDetails user = userDetailsService.loadUserByUsername(loginRequest.getEmail());
-            String token = jwtService.generateToken(user.getUsername());
+            CustomUserDetails user = (CustomUserDetails) authentication.getPrincipal();
+            String token = jwtService.generateToken(user);
 
             return ResponseEntity.ok(new JwtResponseDto(token));
 
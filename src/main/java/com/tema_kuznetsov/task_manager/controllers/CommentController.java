@@ -3,7 +3,9 @@ package com.tema_kuznetsov.task_manager.controllers;
 import com.tema_kuznetsov.task_manager.dto.comment.CommentCreateDto;
 import com.tema_kuznetsov.task_manager.dto.comment.CommentResponseDto;
 import com.tema_kuznetsov.task_manager.dto.comment.CommentUpdateDto;
+import com.tema_kuznetsov.task_manager.dto.comment.CommentVersionDto;
 import com.tema_kuznetsov.task_manager.services.CommentService;
+import com.tema_kuznetsov.task_manager.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -11,9 +13,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -60,21 +64,31 @@ public class CommentController {
      * Получение комментария по ID.
      * Доступно для ролей ADMIN, USER, MODERATOR.
      *
+     * Совпадающий If-None-Match или If-Modified-Since дает 304 без загрузки комментария.
+     *
      * @param id идентификатор комментария.
-     * @return найденный комментарий с HTTP статусом 200.
+     * @param request текущий запрос для проверки If-None-Match и If-Modified-Since.
+     * @return найденный комментарий с HTTP статусом 200 или HTTP статус 304.
      */
     @GetMapping("/{id:\\d+}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER', 'MODERATOR')")
     @Operation(summary = "Получить комментарий по ID", description = "Доступно для ролей ADMIN, USER, MODERATOR")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Комментарий найден"),
+            @ApiResponse(responseCode = "304", description = "Комментарий не изменился"),
             @ApiResponse(responseCode = "404", description = "Комментарий не найден"),
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован " +
                     "(JWT токен отсутствует или некорректен)")
     })
     public ResponseEntity<CommentResponseDto> findCommentById(
-            @PathVariable @Min(value = 1, message = "ID должен быть положительным") Long id) {
-        return ResponseEntity.ok(commentService.findCommentById(id));
+            @PathVariable @Min(value = 1, message = "ID должен быть положительным") Long id,
+            WebRequest request) {
+        CommentVersionDto version = commentService.findCommentVersion(id);
+        if (request.checkNotModified(ETags.strong("comment", id, version.getVersion()),
+                ETags.toEpochMilli(version.getLastModified()))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(ETags.REVALIDATE).body(commentService.findCommentById(id));
     }
 
     /**
@@ -105,9 +119,12 @@ public class CommentController {
      * Обновление комментария по ID.
      * Доступно владельцу комментария или ADMIN.
      *
+     * Если передан If-Match, комментарий обновляется только при совпадении версии, иначе возвращается 412.
+     *
      * @param id идентификатор комментария.
      * @param commentUpdateDto данные для обновления комментария.
-     * @return обновленный комментарий с HTTP статусом 200.
+     * @param ifMatch ETag версии комментария, которую изменяет клиент, или null.
+     * @return обновленный комментарий с новым ETag и HTTP статусом 200.
      */
     @PatchMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @commentOwnerValidator.isCommentOwner(#id, authentication)")
@@ -118,13 +135,19 @@ public class CommentController {
             @ApiResponse(responseCode = "404", description = "Комментарий не найден"),
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован " +
                     "(JWT токен отсутствует или некорректен)"),
-            @ApiResponse(responseCode = "400", description = "Неверный ID или тело запроса")
+            @ApiResponse(responseCode = "400", description = "Неверный ID или тело запроса"),
+            @ApiResponse(responseCode = "409", description = "Комментарий изменен параллельным запросом"),
+            @ApiResponse(responseCode = "412", description = "Версия из If-Match устарела")
     })
     public ResponseEntity<CommentResponseDto> updateComment(
             @PathVariable @Min(value = 1, message = "ID должен быть положительным") Long id,
-            @RequestBody @Valid CommentUpdateDto commentUpdateDto
+            @RequestBody @Valid CommentUpdateDto commentUpdateDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        CommentResponseDto updatedComment = commentService.updateCommentById(id, commentUpdateDto);
-        return ResponseEntity.ok(updatedComment);
+        CommentResponseDto updatedComment = commentService.updateCommentById(id, commentUpdateDto,
+                ETags.expectedVersion(ifMatch, "comment", id));
+        return ResponseEntity.ok()
+                .eTag(ETags.strong("comment", id, updatedComment.getVersion()))
+                .body(updatedComment);
     }
 }
\ No newline at end of file
@@ -1,30 +1,55 @@
 package com.tema_kuznetsov.task_manager.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tema_kuznetsov.task_manager.dto.comment.CommentResponseDto;
+import com.tema_kuznetsov.task_manager.dto.pagination.CursorPageDto;
+import com.tema_kuznetsov.task_manager.dto.task.TaskBulkResultDto;
+import com.tema_kuznetsov.task_manager.dto.task.TaskBulkUpdateDto;
+import com.tema_kuznetsov.task_manager.dto.task.TaskBulkUpdateResultDto;
 import com.tema_kuznetsov.task_manager.dto.task.TaskCreateDto;
 import com.tema_kuznetsov.task_manager.dto.task.TaskResponseDto;
 import com.tema_kuznetsov.task_manager.dto.task.TaskUpdateDto;
+import com.tema_kuznetsov.task_manager.dto.task.TaskVersionDto;
+import com.tema_kuznetsov.task_manager.exceptions.taskException.TaskBulkLimitExceededException;
 import com.tema_kuznetsov.task_manager.models.Task;
 import com.tema_kuznetsov.task_manager.models.constrains.TaskConstrains;
+import com.tema_kuznetsov.task_manager.services.TaskResponseCache;
 import com.tema_kuznetsov.task_manager.services.TaskService;
+import com.tema_kuznetsov.task_manager.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import jakarta.validation.constraints.*;
 import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import java.io.IOException;
 import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import static org.springframework.data.domain.Sort.Direction.DESC;
 
 /**
@@ -40,6 +65,11 @@ import static org.springframework.data.domain.Sort.Direction.DESC;
 @Tag(name = "Tasks", description = "Управление задачами")
 public class TaskController {
     private final TaskService taskService;
+    private final TaskResponseCache taskResponseCache;
+    private final ObjectMapper objectMapper;
+
+    @Value("${task.bulk.max-items:10000}")
+    private int bulkMaxItems;
 
     /**
      * Создание новой задачи.
@@ -70,12 +100,86 @@ public class TaskController {
         return ResponseEntity.created(location).body(new TaskResponseDto(createdTask));
     }
 
+    /**
+     * Пакетное создание задач из JSON-массива.
+     * Доступно для ролей: ADMIN, USER, MODERATOR.
+     * Массив читается потоково, чтение прекращается, как только элементов становится больше допустимого.
+     *
+     * @param request HTTP запрос с JSON-массивом задач
+     * @return результаты по каждому элементу с HTTP статусом 200
+     * @throws IOException если тело запроса не удалось прочитать
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER', 'MODERATOR')")
+    @Operation(
+            summary = "Создать задачи пакетом",
+            description = "Принимает JSON-массив или NDJSON (application/x-ndjson). " +
+                    "Некорректные элементы отклоняются, остальные создаются",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = TaskCreateDto.class))))
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Пакет обработан, результаты по каждому элементу"),
+            @ApiResponse(responseCode = "400", description = "Неверный формат данных или слишком большой пакет"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован " +
+                    "(JWT токен отсутствует или некорректен)")
+    })
+    public ResponseEntity<List<TaskBulkResultDto>> createTasks(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(taskService.createTasks(readBulk(request)));
+    }
+
+    /**
+     * Пакетное создание задач из потока NDJSON, по одной задаче в строке.
+     * Доступно для ролей: ADMIN, USER, MODERATOR.
+     *
+     * @param request HTTP запрос с телом в формате NDJSON
+     * @return результаты по каждому элементу с HTTP статусом 200
+     * @throws IOException если тело запроса не удалось прочитать
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER', 'MODERATOR')")
+    @Operation(hidden = true)
+    public ResponseEntity<List<TaskBulkResultDto>> createTasksFromNdjson(HttpServletRequest request)
+            throws IOException {
+        return ResponseEntity.ok(taskService.createTasks(readBulk(request)));
+    }
+
+    /**
+     * Пакетное обновление статуса, приоритета и исполнителя задач.
+     * Доступно для ролей: ADMIN, USER, MODERATOR; пользователи, кроме ADMIN, обновляют только свои задачи.
+     *
+     * @param dto идентификаторы задач и новые значения полей
+     * @return количество обновленных задач с HTTP статусом 200
+     */
+    @PatchMapping("/bulk")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER', 'MODERATOR')")
+    @Operation(
+            summary = "Обновить задачи пакетом",
+            description = "Изменяет статус, приоритет и исполнителя задач одним запросом. " +
+                    "ADMIN обновляет любые задачи, остальные пользователи только свои"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Задачи обновлены, возвращено количество"),
+            @ApiResponse(responseCode = "400", description = "Неверный формат данных"),
+            @ApiResponse(responseCode = "404", description = "Исполнитель с данным ID не найден"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован " +
+                    "(JWT токен отсутствует или некорректен)")
+    })
+    public ResponseEntity<TaskBulkUpdateResultDto> updateTasks(@Valid @RequestBody TaskBulkUpdateDto dto) {
+        return ResponseEntity.ok(taskService.updateTasks(dto));
+    }
+
     /**
      * Получение задачи по ID.
      * Доступно для ролей: ADMIN, USER, MODERATOR.
+     * Ответ отдается готовым JSON из {@link TaskResponseCache}. Если клиент прислал совпадающий
+     * If-None-Match или If-Modified-Since, возвращается 304 без загрузки и сериализации самой задачи:
+     * версия закешированной задачи берется из кеша без обращения к базе, остальных — одним запросом версии.
      *
      * @param id идентификатор задачи
-     * @return найденная задача с HTTP статусом 200
+     * @param request текущий запрос для проверки If-None-Match и If-Modified-Since
+     * @return найденная задача с HTTP статусом 200 или HTTP статус 304
      */
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER', 'MODERATOR')")
@@ -84,17 +188,44 @@ public class TaskController {
             description = "Доступно для ролей: ADMIN, USER, MODERATOR"
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Задача найдена"),
+            @ApiResponse(responseCode = "200", description = "Задача найдена", content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = TaskResponseDto.class))),
+            @ApiResponse(responseCode = "304", description = "Задача не изменилась"),
             @ApiResponse(responseCode = "404", description = "Задача с данным ID не найдена"),
             @ApiResponse(responseCode = "400", description = "Неверный формат идентификатора"),
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован " +
                     "(JWT токен отсутствует или некорректен)")
     })
-    public ResponseEntity<TaskResponseDto> findTaskById(
+    public ResponseEntity<byte[]> findTaskById(
             @PathVariable
             @Min(value = 1, message = "ID должен быть положительным")
-            Long id) {
-        return ResponseEntity.ok(taskService.findTaskById(id));
+            Long id,
+            WebRequest request) {
+        TaskResponseCache.CachedTask cached = taskResponseCache.getIfPresent(id);
+        long version;
+        LocalDateTime lastModified;
+        if (cached != null) {
+            version = cached.version();
+            lastModified = cached.lastModified();
+        } else {
+            TaskVersionDto taskVersion = taskService.findTaskVersion(id);
+            version = taskVersion.getVersion();
+            lastModified = taskVersion.getLastModified();
+        }
+        if (request.checkNotModified(ETags.strong("task", id, version), ETags.toEpochMilli(lastModified))) {
+            return null;
+        }
+        if (cached == null) {
+            cached = taskResponseCache.get(id, taskService::findTaskById);
+        }
+        // Версия могла быть прочитана с реплики, а тело — с основной базы: заголовки берутся из тела.
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(ETags.REVALIDATE)
+                .eTag(ETags.strong("task", id, cached.version()))
+                .lastModified(ETags.toEpochMilli(cached.lastModified()))
+                .body(cached.json());
     }
 
     /**
@@ -133,6 +264,7 @@ public class TaskController {
      *
      * @param titlePart часть названия для поиска
      * @param pageable параметры пагинации и сортировки
+     * @param request текущий запрос для проверки If-None-Match
      * @return страница найденных задач с HTTP статусом 200
      */
     @GetMapping("/search")
@@ -154,8 +286,42 @@ public class TaskController {
                     message = "Название должно содержать до " + TaskConstrains.MAX_TITLE_LENGTH + " символов")
             @RequestParam String titlePart,
             @ParameterObject
-            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(taskService.findTaskByTitleContaining(titlePart, pageable));
+            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest request) {
+        return ETags.page(request, "task", taskService.findTaskByTitleContaining(titlePart, pageable),
+                TaskResponseDto::getId, TaskResponseDto::getUpdatedAt);
+    }
+
+    /**
+     * Поиск задач по подстроке в названии или описании с ранжированием по релевантности.
+     * Доступно для ролей: ADMIN, USER, MODERATOR.
+     *
+     * @param query строка для поиска
+     * @param limit максимальное количество результатов
+     * @return найденные задачи от наиболее к наименее релевантным с HTTP статусом 200
+     */
+    @GetMapping("/search/ranked")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER', 'MODERATOR')")
+    @Operation(
+            summary = "Ранжированный поиск задач",
+            description = "Ищет подстроку в названии и описании, совпадения в названии выше в выдаче"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Поиск выполнен"),
+            @ApiResponse(responseCode = "400", description = "Неверный формат запроса"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован " +
+                    "(JWT токен отсутствует или некорректен)")
+    })
+    public ResponseEntity<List<TaskResponseDto>> searchTasks(
+            @NotBlank(message = "Строка поиска обязательна")
+            @Size(max = TaskConstrains.MAX_TITLE_LENGTH,
+                    message = "Строка поиска должна содержать до " + TaskConstrains.MAX_TITLE_LENGTH + " символов")
+            @RequestParam String query,
+            @RequestParam(defaultValue = "20")
+            @Min(value = 1, message = "Количество результатов должно быть положительным")
+            @Max(value = 100, message = "Количество результатов не должно превышать 100")
+            int limit) {
+        return ResponseEntity.ok(taskService.searchTasks(query, limit));
     }
 
     /**
@@ -163,6 +329,7 @@ public class TaskController {
      * Доступно только для ролей: ADMIN и MODERATOR.
      *
      * @param pageable параметры пагинации и сортировки
+     * @param request текущий запрос для проверки If-None-Match
      * @return страница всех задач с HTTP статусом 200
      */
     @GetMapping("/list")
@@ -179,17 +346,52 @@ public class TaskController {
     })
     public ResponseEntity<Page<TaskResponseDto>> findAllTasks(
             @ParameterObject
-            @PageableDefault(size = 10, sort = "createdAt", direction = DESC) Pageable pageable) {
-        return ResponseEntity.ok(taskService.findAllTasks(pageable));
+            @PageableDefault(size = 10, sort = "createdAt", direction = DESC) Pageable pageable,
+            WebRequest request) {
+        return ETags.page(request, "task", taskService.findAllTasks(pageable),
+                TaskResponseDto::getId, TaskResponseDto::getUpdatedAt);
+    }
+
+    /**
+     * Получение всех задач порциями по курсору.
+     * Доступно только для ролей: ADMIN и MODERATOR.
+     *
+     * @param after курсор последней полученной задачи, для первой порции не передается
+     * @param size размер порции
+     * @return порция задач от новых к старым с курсором следующей порции
+     */
+    @GetMapping("/list/cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
+    @Operation(
+            summary = "Получить все задачи по курсору",
+            description = "Доступно только для ролей: ADMIN и MODERATOR, не считает общее количество задач"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Задачи успешно получены"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор или размер порции"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован " +
+                    "(JWT токен отсутствует или некорректен)"),
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен")
+    })
+    public ResponseEntity<CursorPageDto<TaskResponseDto>> findAllTasksByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10")
+            @Min(value = 1, message = "Размер порции должен быть положительным")
+            @Max(value = 100, message = "Размер порции не должен превышать 100")
+            int size) {
+        return ResponseEntity.ok(taskService.findAllTasksAfter(after, size));
     }
 
     /**
      * Обновление задачи.
      * Доступно владельцу задачи или ADMIN.
+     * Если передан If-Match с устаревшей версией, обновление применяется только когда параллельные
+     * изменения не затрагивали те же поля, иначе возвращается 412.
      *
      * @param id идентификатор задачи
      * @param updateDto данные для обновления задачи
-     * @return обновленная задача с HTTP статусом 200
+     * @param ifMatch ETag версии задачи, которую изменяет клиент, или null
+     * @return обновленная задача с новым ETag и HTTP статусом 200
      */
     @PatchMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @taskOwnerValidator.isTaskOwner(#id, authentication)")
@@ -203,14 +405,21 @@ public class TaskController {
             @ApiResponse(responseCode = "400", description = "Неверный формат данных"),
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован " +
                     "(JWT токен отсутствует или некорректен)"),
-            @ApiResponse(responseCode = "403", description = "Доступ запрещен")
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен"),
+            @ApiResponse(responseCode = "409", description = "Задача изменена параллельным запросом"),
+            @ApiResponse(responseCode = "412", description = "Версия из If-Match устарела, изменения пересекаются")
     })
     public ResponseEntity<TaskResponseDto> updateTask(
             @PathVariable
             @Min(value = 1, message = "ID должен быть положительным")
             Long id,
-            @Valid @RequestBody TaskUpdateDto updateDto) {
-        return ResponseEntity.ok(taskService.updateTaskById(id, updateDto));
+            @Valid @RequestBody TaskUpdateDto updateDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        TaskResponseDto updatedTask = taskService.updateTaskById(id, updateDto,
+                ETags.expectedVersion(ifMatch, "task", id));
+        return ResponseEntity.ok()
+                .eTag(ETags.strong("task", id, updatedTask.getVersion()))
+                .body(updatedTask);
     }
 
     /**
@@ -379,6 +588,7 @@ public class TaskController {
      *
      * @param status статус для поиска
      * @param pageable параметры пагинации и сортировки
+     * @param request текущий запрос для проверки If-None-Match
      * @return страница найденных задач с HTTP статусом 200
      */
     @GetMapping("/search/status")
@@ -400,8 +610,45 @@ public class TaskController {
                     message = "Допустимые статусы: OPEN, IN_PROGRESS, COMPLETED, CANCELLED")
             String status,
             @ParameterObject
-            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(taskService.findTasksByStatus(status, pageable));
+            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest request) {
+        return ETags.page(request, "task", taskService.findTasksByStatus(status, pageable),
+                TaskResponseDto::getId, TaskResponseDto::getUpdatedAt);
+    }
+
+    /**
+     * Поиск задач по статусу порциями по курсору.
+     * Доступно для ADMIN и MODERATOR.
+     *
+     * @param status статус для поиска
+     * @param after курсор последней полученной задачи, для первой порции не передается
+     * @param size размер порции
+     * @return порция найденных задач от новых к старым с курсором следующей порции
+     */
+    @GetMapping("/search/status/cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
+    @Operation(
+            summary = "Поиск задач по статусу по курсору",
+            description = "Доступно для ADMIN и MODERATOR, не считает общее количество задач"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Задачи успешно найдены"),
+            @ApiResponse(responseCode = "400", description = "Неверный формат статуса или некорректный курсор"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован " +
+                    "(JWT токен отсутствует или некорректен)"),
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен")
+    })
+    public ResponseEntity<CursorPageDto<TaskResponseDto>> findTasksByStatusByCursor(
+            @RequestParam
+            @Pattern(regexp = "OPEN|IN_PROGRESS|COMPLETED|CANCELLED",
+                    message = "Допустимые статусы: OPEN, IN_PROGRESS, COMPLETED, CANCELLED")
+            String status,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10")
+            @Min(value = 1, message = "Размер порции должен быть положительным")
+            @Max(value = 100, message = "Размер порции не должен превышать 100")
+            int size) {
+        return ResponseEntity.ok(taskService.findTasksByStatusAfter(status, after, size));
     }
 
     /**
@@ -410,6 +657,7 @@ public class TaskController {
      *
      * @param priority приоритет для поиска
      * @param pageable параметры пагинации и сортировки
+     * @param request текущий запрос для проверки If-None-Match
      * @return страница найденных задач с HTTP статусом 200
      */
     @GetMapping("/search/priority")
@@ -431,8 +679,45 @@ public class TaskController {
                     message = "Допустимые приоритеты: LOW, MEDIUM, HIGH, CRITICAL")
             String priority,
             @ParameterObject
-            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(taskService.findTasksByPriority(priority, pageable));
+            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest request) {
+        return ETags.page(request, "task", taskService.findTasksByPriority(priority, pageable),
+                TaskResponseDto::getId, TaskResponseDto::getUpdatedAt);
+    }
+
+    /**
+     * Поиск задач по приоритету порциями по курсору.
+     * Доступно для ADMIN и MODERATOR.
+     *
+     * @param priority приоритет для поиска
+     * @param after курсор последней полученной задачи, для первой порции не передается
+     * @param size размер порции
+     * @return порция найденных задач от новых к старым с курсором следующей порции
+     */
+    @GetMapping("/search/priority/cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
+    @Operation(
+            summary = "Поиск задач по приоритету по курсору",
+            description = "Доступно для ADMIN и MODERATOR, не считает общее количество задач"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Задачи успешно найдены"),
+            @ApiResponse(responseCode = "400", description = "Неверный формат приоритета или некорректный курсор"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован " +
+                    "(JWT токен отсутствует или некорректен)"),
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен")
+    })
+    public ResponseEntity<CursorPageDto<TaskResponseDto>> findTasksByPriorityByCursor(
+            @RequestParam
+            @Pattern(regexp = "LOW|MEDIUM|HIGH|CRITICAL",
+                    message = "Допустимые приоритеты: LOW, MEDIUM, HIGH, CRITICAL")
+            String priority,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10")
+            @Min(value = 1, message = "Размер порции должен быть положительным")
+            @Max(value = 100, message = "Размер порции не должен превышать 100")
+            int size) {
+        return ResponseEntity.ok(taskService.findTasksByPriorityAfter(priority, after, size));
     }
 
     /**
@@ -441,6 +726,7 @@ public class TaskController {
      *
      * @param id идентификатор задачи
      * @param pageable параметры пагинации и сортировки
+     * @param request текущий запрос для проверки If-None-Match
      * @return страница комментариев с HTTP статусом 200
      */
     @GetMapping("{id}/comments")
@@ -461,7 +747,70 @@ public class TaskController {
             @Min(value = 1, message = "ID задачи должен быть положительным")
             Long id,
             @ParameterObject
-            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(taskService.findCommentsByTaskId(id, pageable));
+            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest request) {
+        return ETags.page(request, "comment", taskService.findCommentsByTaskId(id, pageable),
+                CommentResponseDto::getId, CommentResponseDto::getUpdatedAt);
+    }
+
+    /**
+     * Получение комментариев к задаче порциями по курсору.
+     * Доступно для ADMIN и MODERATOR.
+     *
+     * @param id идентификатор задачи
+     * @param after курсор последнего полученного комментария, для первой порции не передается
+     * @param size размер порции
+     * @return порция комментариев от новых к старым с курсором следующей порции
+     */
+    @GetMapping("{id}/comments/cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
+    @Operation(
+            summary = "Получить комментарии к задаче по курсору",
+            description = "Доступно для ADMIN и MODERATOR, не считает общее количество комментариев"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Комментарии получены"),
+            @ApiResponse(responseCode = "400", description = "Неверный формат идентификатора или некорректный курсор"),
+            @ApiResponse(responseCode = "401", description = "Пользователь не авторизован " +
+                    "(JWT токен отсутствует или некорректен)"),
+            @ApiResponse(responseCode = "403", description = "Доступ запрещен")
+    })
+    public ResponseEntity<CursorPageDto<CommentResponseDto>> findCommentsByTaskIdByCursor(
+            @PathVariable
+            @Min(value = 1, message = "ID задачи должен быть положительным")
+            Long id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10")
+            @Min(value = 1, message = "Размер порции должен быть положительным")
+            @Max(value = 100, message = "Размер порции не должен превышать 100")
+            int size) {
+        return ResponseEntity.ok(taskService.findCommentsByTaskIdAfter(id, after, size));
+    }
+
+    /**
+     * Потоково читает задачи пакета из JSON-массива или NDJSON.
+     * Чтение прекращается на первом элементе сверх {@code task.bulk.max-items},
+     * поэтому слишком большой пакет не загружается в память целиком.
+     *
+     * @param request HTTP запрос с пакетом задач
+     * @return задачи пакета
+     * @throws IOException если тело запроса не удалось прочитать
+     * @throws TaskBulkLimitExceededException если элементов больше допустимого
+     */
+    private List<TaskCreateDto> readBulk(HttpServletRequest request) throws IOException {
+        List<TaskCreateDto> dtos = new ArrayList<>();
+        try (MappingIterator<TaskCreateDto> items = objectMapper.readerFor(TaskCreateDto.class)
+                .readValues(request.getInputStream())) {
+            while (items.hasNextValue()) {
+                if (dtos.size() == bulkMaxItems) {
+                    throw new TaskBulkLimitExceededException(bulkMaxItems);
+                }
+                dtos.add(items.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e,
+                    new ServletServerHttpRequest(request));
+        }
+        return dtos;
     }
-}
\ No newline at end of file
+}
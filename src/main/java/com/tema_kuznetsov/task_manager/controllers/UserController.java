@@ -6,6 +6,7 @@ import com.tema_kuznetsov.task_manager.dto.user.UserUpdateDto;
 import com.tema_kuznetsov.task_manager.models.constrains.UserConstrains;
 import com.tema_kuznetsov.task_manager.security.CustomUserDetails;
 import com.tema_kuznetsov.task_manager.services.UserService;
+import com.tema_kuznetsov.task_manager.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -25,6 +26,9 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
 
 /**
  * Контроллер для управления пользователями.
@@ -45,18 +49,21 @@ public class UserController {
      * Доступно всем авторизованным пользователям.
      *
      * @param customUserDetails данные аутентифицированного пользователя
-     * @return информация о пользователе с HTTP статусом 200
+     * @param request текущий запрос для проверки If-None-Match и If-Modified-Since
+     * @return информация о пользователе с HTTP статусом 200 или HTTP статус 304
      */
     @GetMapping("/me")
     @PreAuthorize("isAuthenticated()")
     @Operation(summary = "Получить информацию о себе", description = "Доступно всем авторизованным пользователям")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Информация о пользователе получена"),
+            @ApiResponse(responseCode = "304", description = "Пользователь не изменился"),
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован " +
                     "(JWT токен отсутствует или некорректен)")
     })
-    public ResponseEntity<UserResponseDto> getMe(@AuthenticationPrincipal CustomUserDetails customUserDetails) {
-        return ResponseEntity.ok(userService.findUserById(customUserDetails.getId()));
+    public ResponseEntity<UserResponseDto> getMe(@AuthenticationPrincipal CustomUserDetails customUserDetails,
+                                                 WebRequest request) {
+        return conditionalUser(customUserDetails.getId(), request);
     }
 
     /**
@@ -64,13 +71,15 @@ public class UserController {
      * Доступно для ролей ADMIN и MODERATOR.
      *
      * @param id идентификатор пользователя
-     * @return информация о пользователе с HTTP статусом 200
+     * @param request текущий запрос для проверки If-None-Match и If-Modified-Since
+     * @return информация о пользователе с HTTP статусом 200 или HTTP статус 304
      */
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
     @Operation(summary = "Получить пользователя по ID", description = "Доступно администраторам и модераторам")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Пользователь найден"),
+            @ApiResponse(responseCode = "304", description = "Пользователь не изменился"),
             @ApiResponse(responseCode = "404", description = "Пользователь не найден"),
             @ApiResponse(responseCode = "403", description = "Доступ запрещен"),
             @ApiResponse(responseCode = "401", description = "Пользователь не авторизован " +
@@ -79,8 +88,9 @@ public class UserController {
     public ResponseEntity<UserResponseDto> findUserById(
             @PathVariable
             @Min(value = 1, message = "ID должен быть положительным")
-            Long id) {
-        return ResponseEntity.ok(userService.findUserById(id));
+            Long id,
+            WebRequest request) {
+        return conditionalUser(id, request);
     }
 
     /**
@@ -146,6 +156,7 @@ public class UserController {
      *
      * @param loginPart часть логина для поиска
      * @param pageable параметры пагинации и сортировки
+     * @param request текущий запрос для проверки If-None-Match
      * @return страница найденных пользователей с HTTP статусом 200
      */
     @GetMapping("/search")
@@ -167,8 +178,10 @@ public class UserController {
             )
             @RequestParam String loginPart,
             @ParameterObject
-            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(userService.findUserByLoginContaining(loginPart, pageable));
+            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest request) {
+        return ETags.page(request, "user", userService.findUserByLoginContaining(loginPart, pageable),
+                UserResponseDto::getId, UserResponseDto::getUpdatedAt);
     }
 
     /**
@@ -176,6 +189,7 @@ public class UserController {
      * Доступно для ролей ADMIN и MODERATOR.
      *
      * @param pageable параметры пагинации и сортировки
+     * @param request текущий запрос для проверки If-None-Match
      * @return страница всех пользователей с HTTP статусом 200
      */
     @GetMapping("/list")
@@ -190,8 +204,10 @@ public class UserController {
     })
     public ResponseEntity<Page<UserResponseDto>> findAllUsers(
             @ParameterObject
-            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(userService.findAllUsers(pageable));
+            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest request) {
+        return ETags.page(request, "user", userService.findAllUsers(pageable),
+                UserResponseDto::getId, UserResponseDto::getUpdatedAt);
     }
 
     /**
@@ -353,6 +369,7 @@ public class UserController {
      *
      * @param role роль для поиска
      * @param pageable параметры пагинации и сортировки
+     * @param request текущий запрос для проверки If-None-Match
      * @return страница найденных пользователей с HTTP статусом 200
      */
     @GetMapping("/search/role")
@@ -371,8 +388,10 @@ public class UserController {
             @Pattern(regexp = "ADMIN|USER|MODERATOR", message = "Роль должна быть одной из: ADMIN, USER, MODERATOR")
             @RequestParam String role,
             @ParameterObject
-            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(userService.findUsersByRole(role, pageable));
+            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest request) {
+        return ETags.page(request, "user", userService.findUsersByRole(role, pageable),
+                UserResponseDto::getId, UserResponseDto::getUpdatedAt);
     }
 
     /**
@@ -381,6 +400,7 @@ public class UserController {
      *
      * @param id идентификатор пользователя
      * @param pageable параметры пагинации и сортировки
+     * @param request текущий запрос для проверки If-None-Match
      * @return страница комментариев с HTTP статусом 200
      */
     @GetMapping("/{id}/comments")
@@ -399,7 +419,25 @@ public class UserController {
             @Min(value = 1, message = "ID должен быть положительным")
             Long id,
             @ParameterObject
-            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(userService.findCommentsByUserId(id, pageable));
+            @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest request) {
+        return ETags.page(request, "comment", userService.findCommentsByUserId(id, pageable),
+                CommentResponseDto::getId, CommentResponseDto::getUpdatedAt);
+    }
+
+    /**
+     * Отдает пользователя со строгим ETag или 304, если клиент прислал совпадающий
+     * If-None-Match или If-Modified-Since. Для 304 пользователь не загружается.
+     *
+     * @param id идентификатор пользователя
+     * @param request текущий запрос
+     * @return информация о пользователе или null, если ответ 304 уже сформирован
+     */
+    private ResponseEntity<UserResponseDto> conditionalUser(Long id, WebRequest request) {
+        LocalDateTime lastModified = userService.findUserLastModified(id);
+        if (request.checkNotModified(ETags.strong("user", id, lastModified), ETags.toEpochMilli(lastModified))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(ETags.REVALIDATE).body(userService.findUserById(id));
     }
-}
\ No newline at end of file
+}
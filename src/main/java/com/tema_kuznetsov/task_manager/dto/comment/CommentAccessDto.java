@@ -0,0 +1,23 @@
+package com.tema_kuznetsov.task_manager.dto.comment;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Проекция комментария для проверки прав доступа.
+ * Содержит только идентификатор автора, без загрузки связанного пользователя.
+ */
+@Getter
+@AllArgsConstructor
+public class CommentAccessDto {
+
+    /**
+     * ID комментария.
+     */
+    private Long id;
+
+    /**
+     * ID автора комментария.
+     */
+    private Long authorId;
+}
@@ -34,6 +34,19 @@ public class CommentResponseDto {
     @Schema(description = "Дата создания комментария", example = "2024-04-18T08:30:00")
     private LocalDateTime createdAt;
 
+    /**
+     * Дата последнего обновления комментария.
+     * В формате ISO 8601.
+     */
+    @Schema(description = "Дата последнего обновления комментария", example = "2024-04-18T09:00:00")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Версия комментария для условных обновлений через If-Match.
+     */
+    @Schema(description = "Версия комментария", example = "1")
+    private Long version;
+
     /**
      * ID автора комментария.
      */
@@ -55,7 +68,31 @@ public class CommentResponseDto {
         this.id = comment.getId();
         this.text = comment.getText();
         this.createdAt = comment.getCreatedAt();
+        this.updatedAt = comment.getUpdatedAt();
+        this.version = comment.getVersion();
         this.authorId = comment.getAuthor().getId();
         this.taskId = comment.getTask().getId();
     }
+
+    /**
+     * Конструктор для JPQL-проекций, заполняющий DTO напрямую из колонок комментария.
+     *
+     * @param id ID комментария.
+     * @param text Текст комментария.
+     * @param createdAt Дата создания комментария.
+     * @param updatedAt Дата последнего обновления комментария.
+     * @param version Версия комментария.
+     * @param authorId ID автора комментария.
+     * @param taskId ID задачи.
+     */
+    public CommentResponseDto(Long id, String text, LocalDateTime createdAt, LocalDateTime updatedAt,
+                              Long version, Long authorId, Long taskId) {
+        this.id = id;
+        this.text = text;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+        this.authorId = authorId;
+        this.taskId = taskId;
+    }
 }
\ No newline at end of file
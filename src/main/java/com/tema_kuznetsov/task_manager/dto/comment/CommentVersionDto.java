@@ -0,0 +1,25 @@
+package com.tema_kuznetsov.task_manager.dto.comment;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция комментария для условных запросов.
+ * Содержит только версию и время последнего изменения, без загрузки самого комментария.
+ */
+@Getter
+@AllArgsConstructor
+public class CommentVersionDto {
+
+    /**
+     * Версия комментария.
+     */
+    private long version;
+
+    /**
+     * Время последнего изменения комментария или время создания, если изменений не было.
+     */
+    private LocalDateTime lastModified;
+}
@@ -0,0 +1,57 @@
+package com.tema_kuznetsov.task_manager.dto.pagination;
+
+import com.tema_kuznetsov.task_manager.util.CursorCodec;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * DTO для ответа с порцией записей при keyset-пагинации.
+ * В отличие от страницы не содержит общего количества записей.
+ *
+ * @param <T> тип записей
+ */
+@Getter
+public class CursorPageDto<T> {
+
+    /**
+     * Записи текущей порции.
+     */
+    @Schema(description = "Записи текущей порции")
+    private final List<T> content;
+
+    /**
+     * Курсор для получения следующей порции.
+     * Равен null, если следующей порции нет.
+     */
+    @Schema(description = "Курсор следующей порции", example = "MjAyNC0wNC0xN1QxMjowMHw0Mg")
+    private final String nextCursor;
+
+    /**
+     * Признак наличия следующей порции.
+     */
+    @Schema(description = "Есть ли следующая порция", example = "true")
+    private final boolean hasNext;
+
+    /**
+     * Конструктор, формирующий порцию и курсор следующей порции из последней записи.
+     *
+     * @param slice порция записей
+     * @param createdAt функция получения даты создания записи
+     * @param id функция получения идентификатора записи
+     */
+    public CursorPageDto(Slice<T> slice, Function<T, LocalDateTime> createdAt, Function<T, Long> id) {
+        this.content = slice.getContent();
+        this.hasNext = slice.hasNext();
+        if (hasNext) {
+            T last = content.get(content.size() - 1);
+            this.nextCursor = CursorCodec.encode(createdAt.apply(last), id.apply(last));
+        } else {
+            this.nextCursor = null;
+        }
+    }
+}
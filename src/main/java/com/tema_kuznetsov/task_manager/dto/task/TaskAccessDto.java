@@ -0,0 +1,29 @@
+package com.tema_kuznetsov.task_manager.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Проекция задачи для проверки прав доступа.
+ * Содержит только идентификаторы владельца и исполнителя, без загрузки связанных пользователей.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskAccessDto {
+
+    /**
+     * ID задачи.
+     */
+    private Long id;
+
+    /**
+     * ID владельца задачи.
+     */
+    private Long ownerId;
+
+    /**
+     * ID исполнителя задачи.
+     * Может быть null, если задача не назначена исполнителю.
+     */
+    private Long performerId;
+}
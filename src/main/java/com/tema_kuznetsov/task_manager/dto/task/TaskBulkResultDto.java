@@ -0,0 +1,77 @@
+package com.tema_kuznetsov.task_manager.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * DTO с результатом обработки одного элемента пакетного создания задач.
+ */
+@Getter
+public class TaskBulkResultDto {
+
+    /**
+     * Статус элемента: задача создана.
+     */
+    public static final String CREATED = "CREATED";
+
+    /**
+     * Статус элемента: задача отклонена из-за ошибок.
+     */
+    public static final String REJECTED = "REJECTED";
+
+    /**
+     * Порядковый номер элемента во входных данных, начиная с 0.
+     */
+    @Schema(description = "Порядковый номер элемента во входных данных", example = "0")
+    private final int index;
+
+    /**
+     * Статус обработки элемента.
+     */
+    @Schema(description = "Статус обработки элемента", allowableValues = {CREATED, REJECTED}, example = CREATED)
+    private final String status;
+
+    /**
+     * ID созданной задачи.
+     * Равен null, если задача отклонена.
+     */
+    @Schema(description = "ID созданной задачи", example = "42")
+    private final Long id;
+
+    /**
+     * Ошибки, из-за которых задача отклонена.
+     */
+    @Schema(description = "Ошибки, из-за которых задача отклонена")
+    private final List<String> errors;
+
+    private TaskBulkResultDto(int index, String status, Long id, List<String> errors) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.errors = errors;
+    }
+
+    /**
+     * Создает результат для успешно созданной задачи.
+     *
+     * @param index порядковый номер элемента
+     * @param id ID созданной задачи
+     * @return результат элемента
+     */
+    public static TaskBulkResultDto created(int index, Long id) {
+        return new TaskBulkResultDto(index, CREATED, id, null);
+    }
+
+    /**
+     * Создает результат для отклоненной задачи.
+     *
+     * @param index порядковый номер элемента
+     * @param errors ошибки элемента
+     * @return результат элемента
+     */
+    public static TaskBulkResultDto rejected(int index, List<String> errors) {
+        return new TaskBulkResultDto(index, REJECTED, null, errors);
+    }
+}
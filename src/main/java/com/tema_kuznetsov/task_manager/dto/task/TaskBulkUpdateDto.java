@@ -0,0 +1,75 @@
+package com.tema_kuznetsov.task_manager.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * DTO для пакетного обновления задач.
+ * Содержит идентификаторы задач и новые значения полей; поля, которые не указаны, не изменяются.
+ */
+@Getter
+@Setter
+@ToString
+public class TaskBulkUpdateDto {
+
+    /**
+     * Максимальное количество задач в одном запросе.
+     */
+    public static final int MAX_IDS = 10000;
+
+    /**
+     * Идентификаторы обновляемых задач.
+     */
+    @Schema(description = "Идентификаторы обновляемых задач", example = "[1, 2, 3]")
+    @NotEmpty(message = "Список задач обязателен")
+    @Size(max = MAX_IDS, message = "За один запрос можно обновить не более " + MAX_IDS + " задач")
+    private List<@NotNull(message = "ID задачи не должен быть пустым") Long> ids;
+
+    /**
+     * Новый статус задач.
+     * Допустимые значения: OPEN, IN_PROGRESS, COMPLETED, CANCELLED.
+     */
+    @Schema(description = "Новый статус задач", allowableValues = {"OPEN", "IN_PROGRESS", "COMPLETED", "CANCELLED"}, example = "COMPLETED")
+    @Pattern(
+            regexp = "OPEN|IN_PROGRESS|COMPLETED|CANCELLED",
+            message = "Допустимые статусы: OPEN, IN_PROGRESS, COMPLETED, CANCELLED"
+    )
+    private String status;
+
+    /**
+     * Новый приоритет задач.
+     * Допустимые значения: LOW, MEDIUM, HIGH, CRITICAL.
+     */
+    @Schema(description = "Новый приоритет задач", allowableValues = {"LOW", "MEDIUM", "HIGH", "CRITICAL"}, example = "LOW")
+    @Pattern(
+            regexp = "LOW|MEDIUM|HIGH|CRITICAL",
+            message = "Допустимые приоритеты: LOW, MEDIUM, HIGH, CRITICAL"
+    )
+    private String priority;
+
+    /**
+     * ID нового исполнителя задач.
+     */
+    @Schema(description = "ID нового исполнителя задач", example = "2")
+    private Long performerId;
+
+    /**
+     * Проверяет, что указано хотя бы одно изменяемое поле.
+     *
+     * @return true, если есть что обновлять
+     */
+    @Schema(hidden = true)
+    @AssertTrue(message = "Нужно указать хотя бы одно поле для обновления: status, priority или performerId")
+    public boolean isAnyChangePresent() {
+        return status != null || priority != null || performerId != null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.tema_kuznetsov.task_manager.dto.task;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * DTO с результатом пакетного обновления задач.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskBulkUpdateResultDto {
+
+    /**
+     * Количество различных задач в запросе.
+     */
+    @Schema(description = "Количество различных задач в запросе", example = "3")
+    private int requested;
+
+    /**
+     * Количество обновленных задач.
+     * Меньше запрошенного, если часть задач не существует или принадлежит другому пользователю.
+     */
+    @Schema(description = "Количество обновленных задач", example = "2")
+    private int updated;
+}
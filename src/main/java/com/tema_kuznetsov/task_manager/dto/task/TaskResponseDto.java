@@ -61,6 +61,12 @@ public class TaskResponseDto {
     @Schema(description = "Дата последнего обновления", example = "2024-04-18T10:00:00")
     private LocalDateTime updatedAt;
 
+    /**
+     * Версия задачи для условных обновлений через If-Match.
+     */
+    @Schema(description = "Версия задачи", example = "3")
+    private Long version;
+
     /**
      * ID владельца задачи.
      */
@@ -87,7 +93,38 @@ public class TaskResponseDto {
         this.priority = task.getPriority();
         this.createdAt = task.getCreatedAt();
         this.updatedAt = task.getUpdatedAt();
+        this.version = task.getVersion();
         this.ownerId = task.getOwnerId();
-        this.performerId = task.getPerformer() != null ? task.getPerformer().getId() : null;
+        this.performerId = task.getPerformerId();
+    }
+
+    /**
+     * Конструктор для JPQL-проекций, заполняющий DTO напрямую из колонок задачи
+     * без загрузки связанных пользователей.
+     *
+     * @param id ID задачи.
+     * @param title Название задачи.
+     * @param description Описание задачи.
+     * @param status Статус задачи.
+     * @param priority Приоритет задачи.
+     * @param createdAt Дата создания задачи.
+     * @param updatedAt Дата последнего обновления задачи.
+     * @param version Версия задачи.
+     * @param ownerId ID владельца задачи.
+     * @param performerId ID исполнителя задачи.
+     */
+    public TaskResponseDto(Long id, String title, String description, String status, String priority,
+                           LocalDateTime createdAt, LocalDateTime updatedAt, Long version,
+                           Long ownerId, Long performerId) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.status = status;
+        this.priority = priority;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+        this.ownerId = ownerId;
+        this.performerId = performerId;
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.tema_kuznetsov.task_manager.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция задачи для условных запросов.
+ * Содержит только версию и время последнего изменения, без загрузки самой задачи.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskVersionDto {
+
+    /**
+     * Версия задачи.
+     */
+    private long version;
+
+    /**
+     * Время последнего изменения задачи или время создания, если изменений не было.
+     */
+    private LocalDateTime lastModified;
+}
@@ -44,6 +44,12 @@ public class UserResponseDto {
     @Schema(description = "Дата регистрации пользователя", example = "2024-04-17T10:15:30")
     private LocalDateTime createdAt;
 
+    /**
+     * Дата последнего обновления пользователя.
+     */
+    @Schema(description = "Дата последнего обновления пользователя", example = "2024-04-18T09:00:00")
+    private LocalDateTime updatedAt;
+
     /**
      * Конструктор для создания DTO на основе пользователя.
      *
@@ -55,5 +61,6 @@ public class UserResponseDto {
         this.id = user.getId();
         this.role = user.getRole();
         this.createdAt = user.getCreatedAt();
+        this.updatedAt = user.getUpdatedAt();
     }
 }
\ No newline at end of file
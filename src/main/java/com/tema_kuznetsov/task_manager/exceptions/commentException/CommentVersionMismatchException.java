@@ -0,0 +1,7 @@
+package com.tema_kuznetsov.task_manager.exceptions.commentException;
+
+public class CommentVersionMismatchException extends RuntimeException {
+    public CommentVersionMismatchException(Long id, long version) {
+        super("Комментарий с id " + id + " был изменен другим запросом, версия " + version + " устарела");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.tema_kuznetsov.task_manager.exceptions.paginationException;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String cursor) {
+        super("Курсор " + cursor + " некорректен");
+    }
+}
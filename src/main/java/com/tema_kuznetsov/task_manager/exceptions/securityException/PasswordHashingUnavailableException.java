@@ -0,0 +1,14 @@
+package com.tema_kuznetsov.task_manager.exceptions.securityException;
+
+import lombok.Getter;
+
+@Getter
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingUnavailableException(long retryAfterSeconds) {
+        super("Сервис аутентификации перегружен, повторите запрос позже");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
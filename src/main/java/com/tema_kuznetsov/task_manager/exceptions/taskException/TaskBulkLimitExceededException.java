@@ -0,0 +1,7 @@
+package com.tema_kuznetsov.task_manager.exceptions.taskException;
+
+public class TaskBulkLimitExceededException extends RuntimeException {
+    public TaskBulkLimitExceededException(int limit) {
+        super("За один запрос можно создать не более " + limit + " задач");
+    }
+}
@@ -0,0 +1,7 @@
+package com.tema_kuznetsov.task_manager.exceptions.taskException;
+
+public class TaskVersionMismatchException extends RuntimeException {
+    public TaskVersionMismatchException(Long id, long version) {
+        super("Задача с id " + id + " была изменена другим запросом, версия " + version + " устарела");
+    }
+}
\ No newline at end of file
@@ -7,7 +7,12 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -17,15 +22,41 @@ import java.util.List;
 /**
  * Сущность пользователя системы. Представляет информацию о пользователе, включая его роль, логин, пароль и список задач.
  * Используется для хранения данных о пользователях в базе данных.
+ * Пользователи и соответствие email идентификатору хранятся в кеше второго уровня Hibernate.
  */
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "app_users")
+@Table(name = "app_users", uniqueConstraints = {
+        @UniqueConstraint(name = AppUser.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email"),
+        @UniqueConstraint(name = AppUser.LOGIN_UNIQUE_CONSTRAINT, columnNames = "login")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = AppUser.CACHE_REGION)
+@NaturalIdCache(region = AppUser.NATURAL_ID_CACHE_REGION)
 public class AppUser {
 
+    /**
+     * Регион кеша второго уровня с пользователями.
+     */
+    public static final String CACHE_REGION = "users";
+
+    /**
+     * Регион кеша второго уровня с соответствием email идентификатору пользователя.
+     */
+    public static final String NATURAL_ID_CACHE_REGION = "users-by-email";
+
+    /**
+     * Имя уникального ограничения на email пользователя.
+     */
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "app_users_email_key";
+
+    /**
+     * Имя уникального ограничения на логин пользователя.
+     */
+    public static final String LOGIN_UNIQUE_CONSTRAINT = "app_users_login_key";
+
     /**
      * Уникальный идентификатор пользователя.
      */
@@ -35,7 +66,9 @@ public class AppUser {
 
     /**
      * Электронная почта пользователя. Не может быть пустой и должна быть в правильном формате.
+     * Является натуральным идентификатором: пользователь загружается по email через кеш второго уровня.
      */
+    @NaturalId(mutable = true)
     @Size(min = UserConstrains.MIN_EMAIL_LENGTH, max = UserConstrains.MAX_EMAIL_LENGTH)
     @NotBlank
     @Email
@@ -60,6 +93,13 @@ public class AppUser {
     @Size(min = UserConstrains.MIN_PASSWORD_LENGTH, max = UserConstrains.MAX_PASSWORD_LENGTH)
     private String password;
 
+    /**
+     * Версия токенов пользователя. Увеличивается при изменении роли, email или пароля,
+     * после чего ранее выпущенные stateless-токены перепроверяются по базе данных.
+     */
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion = 0;
+
     /**
      * Список задач, принадлежащих пользователю.
      */
@@ -84,4 +124,10 @@ public class AppUser {
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime createdAt;
-}
\ No newline at end of file
+
+    /**
+     * Дата и время последнего обновления пользователя.
+     */
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
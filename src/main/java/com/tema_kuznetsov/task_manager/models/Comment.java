@@ -9,6 +9,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
@@ -48,8 +49,16 @@ public class Comment {
     /**
      * Дата и время последнего обновления комментария.
      */
+    @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    /**
+     * Версия комментария для оптимистичной блокировки. Увеличивается при каждом изменении комментария.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     /**
      * Автор комментария, который является пользователем системы.
      */
@@ -5,30 +5,52 @@ import com.tema_kuznetsov.task_manager.models.constrains.TaskConstrains;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 
 /**
  * Сущность задачи в системе. Представляет задачу с заголовком, описанием, статусом и приоритетом.
  * Связана с пользователями, которые являются владельцем и исполнителем задачи, а также с комментариями.
+ * Задачи хранятся в кеше второго уровня Hibernate; пакетные обновления сбрасывают весь регион.
  */
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", uniqueConstraints = @UniqueConstraint(
+        name = Task.TITLE_UNIQUE_CONSTRAINT, columnNames = "normalized_title"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Task.CACHE_REGION)
 public class Task {
 
+    /**
+     * Регион кеша второго уровня с задачами.
+     */
+    public static final String CACHE_REGION = "tasks";
+
+    /**
+     * Имя уникального ограничения на нормализованный заголовок задачи.
+     */
+    public static final String TITLE_UNIQUE_CONSTRAINT = "tasks_normalized_title_key";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     /**
      * Уникальный идентификатор задачи.
+     * Выдается последовательностью блоками по 50 значений, что позволяет Hibernate
+     * объединять вставки задач в JDBC-пакеты.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_id_seq")
+    @SequenceGenerator(name = "tasks_id_seq", sequenceName = "tasks_id_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -37,6 +59,15 @@ public class Task {
     @Size(max = TaskConstrains.MAX_TITLE_LENGTH)
     private String title;
 
+    /**
+     * Нормализованный заголовок задачи: без крайних и повторных пробелов, в нижнем регистре.
+     * Заполняется при установке заголовка; уникальный индекс по нему не позволяет
+     * создать задачи, названия которых отличаются только регистром или пробелами.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "normalized_title", nullable = false, length = TaskConstrains.MAX_TITLE_LENGTH)
+    private String normalizedTitle;
+
     /**
      * Описание задачи. Ограничено максимальной длиной.
      */
@@ -68,6 +99,14 @@ public class Task {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    /**
+     * Версия задачи для оптимистичной блокировки. Увеличивается при каждом изменении задачи,
+     * конкурирующее изменение устаревшей версии отклоняется без блокировки строки.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     /**
      * Владелец задачи, который может редактировать и назначать исполнителей.
      */
@@ -75,6 +114,29 @@ public class Task {
     @JoinColumn(name = "owner_id")
     private AppUser owner;
 
+    /**
+     * Устанавливает заголовок задачи и пересчитывает нормализованный заголовок.
+     *
+     * @param title заголовок задачи
+     */
+    public void setTitle(String title) {
+        this.title = title;
+        this.normalizedTitle = normalizeTitle(title);
+    }
+
+    /**
+     * Приводит заголовок к виду, по которому проверяется уникальность.
+     *
+     * @param title заголовок задачи
+     * @return нормализованный заголовок или null, если заголовок не задан
+     */
+    public static String normalizeTitle(String title) {
+        if (title == null) {
+            return null;
+        }
+        return WHITESPACE.matcher(title.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Получить ID владельца задачи.
      *
@@ -1,11 +1,20 @@
 package com.tema_kuznetsov.task_manager.repositories;
 
+import com.tema_kuznetsov.task_manager.dto.comment.CommentAccessDto;
+import com.tema_kuznetsov.task_manager.dto.comment.CommentResponseDto;
+import com.tema_kuznetsov.task_manager.dto.comment.CommentVersionDto;
 import com.tema_kuznetsov.task_manager.models.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 /**
  * Репозиторий для работы с сущностью {@link Comment}.
  * Предоставляет методы для работы с комментариями, включая их поиск по задаче и автору.
@@ -30,4 +39,44 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      * @return Страница с комментариями.
      */
     Page<Comment> findByAuthorIdOrderByCreatedAtDesc(Long authorId, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Находит порцию комментариев к задаче после курсора (createdAt, id) в порядке убывания.
+     * Комментарии проецируются в DTO напрямую, чтобы курсор строился из значений, сохраненных в базе данных.
+     *
+     * @param taskId Идентификатор задачи.
+     * @param createdAt Дата создания последнего выданного комментария.
+     * @param id Идентификатор последнего выданного комментария.
+     * @param pageable Размер порции.
+     * @return Порция DTO комментариев.
+     */
+    @Query("SELECT new com.tema_kuznetsov.task_manager.dto.comment.CommentResponseDto(" +
+            "c.id, c.text, c.createdAt, c.updatedAt, c.version, c.author.id, c.task.id) FROM Comment c " +
+            "WHERE c.task.id = :taskId AND (c.createdAt, c.id) < (:createdAt, :id) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    Slice<CommentResponseDto> findResponsesByTaskIdAfter(@Param("taskId") Long taskId,
+                                                         @Param("createdAt") LocalDateTime createdAt,
+                                                         @Param("id") Long id,
+                                                         Pageable pageable);
+
+    /**
+     * Находит идентификатор автора комментария, не загружая сам комментарий и автора.
+     *
+     * @param id Идентификатор комментария.
+     * @return Опциональная проекция для проверки прав доступа.
+     */
+    @Query("SELECT new com.tema_kuznetsov.task_manager.dto.comment.CommentAccessDto(c.id, c.author.id) " +
+            "FROM Comment c WHERE c.id = :id")
+    Optional<CommentAccessDto> findAccessById(@Param("id") Long id);
+
+    /**
+     * Находит версию комментария и время его последнего изменения (или время создания, если изменений не было)
+     * без загрузки сущности.
+     *
+     * @param id Идентификатор комментария.
+     * @return Опциональная проекция для условных запросов.
+     */
+    @Query("SELECT new com.tema_kuznetsov.task_manager.dto.comment.CommentVersionDto(" +
+            "c.version, COALESCE(c.updatedAt, c.createdAt)) FROM Comment c WHERE c.id = :id")
+    Optional<CommentVersionDto> findVersionById(@Param("id") Long id);
+}
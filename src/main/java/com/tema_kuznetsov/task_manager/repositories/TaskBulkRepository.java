@@ -0,0 +1,23 @@
+package com.tema_kuznetsov.task_manager.repositories;
+
+import java.util.Collection;
+
+/**
+ * Фрагмент репозитория задач с пакетными операциями, которые выполняются
+ * одним SQL-запросом без загрузки сущностей.
+ */
+public interface TaskBulkRepository {
+
+    /**
+     * Обновляет статус, приоритет и исполнителя задач одним запросом {@code UPDATE}.
+     * Поля, равные null, не изменяются.
+     *
+     * @param ids Идентификаторы задач.
+     * @param status Новый статус или null.
+     * @param priority Новый приоритет или null.
+     * @param performerId Идентификатор нового исполнителя или null.
+     * @param ownerId Идентификатор владельца, которым ограничивается обновление, или null без ограничения.
+     * @return Количество обновленных задач.
+     */
+    int bulkUpdate(Collection<Long> ids, String status, String priority, Long performerId, Long ownerId);
+}
@@ -0,0 +1,54 @@
+package com.tema_kuznetsov.task_manager.repositories;
+
+import com.tema_kuznetsov.task_manager.models.AppUser;
+import com.tema_kuznetsov.task_manager.models.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Реализация {@link TaskBulkRepository} на основе {@link CriteriaUpdate}.
+ * Запрос собирается только из переданных полей, а ограничение по владельцу
+ * проверяется в том же {@code WHERE}, поэтому чужие задачи просто не обновляются.
+ */
+public class TaskBulkRepositoryImpl implements TaskBulkRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int bulkUpdate(Collection<Long> ids, String status, String priority, Long performerId, Long ownerId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Task> update = cb.createCriteriaUpdate(Task.class);
+        Root<Task> task = update.from(Task.class);
+
+        if (status != null) {
+            update.set(task.<String>get("status"), status);
+        }
+        if (priority != null) {
+            update.set(task.<String>get("priority"), priority);
+        }
+        if (performerId != null) {
+            update.set(task.<AppUser>get("performer"), entityManager.getReference(AppUser.class, performerId));
+        }
+        update.set(task.<LocalDateTime>get("updatedAt"), LocalDateTime.now());
+        update.set(task.<Long>get("version"), cb.sum(task.<Long>get("version"), 1L));
+
+        Predicate where = task.get("id").in(ids);
+        if (ownerId != null) {
+            where = cb.and(where, cb.equal(task.get("owner").get("id"), ownerId));
+        }
+        update.where(where);
+
+        entityManager.flush();
+        int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+}
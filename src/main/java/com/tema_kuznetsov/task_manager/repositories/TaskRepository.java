@@ -1,8 +1,12 @@
 package com.tema_kuznetsov.task_manager.repositories;
 
+import com.tema_kuznetsov.task_manager.dto.task.TaskAccessDto;
+import com.tema_kuznetsov.task_manager.dto.task.TaskResponseDto;
+import com.tema_kuznetsov.task_manager.dto.task.TaskVersionDto;
 import com.tema_kuznetsov.task_manager.models.Task;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -10,39 +14,137 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с сущностью {@link Task}.
  * Предоставляет методы для поиска задач, их удаления и работы с их статусом и приоритетом.
  */
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskBulkRepository {
+
+    /**
+     * Проекция задачи в {@link TaskResponseDto}: только колонки задачи и внешние ключи
+     * владельца и исполнителя, без обращения к связанным пользователям.
+     */
+    String SELECT_TASK_RESPONSE = "SELECT new com.tema_kuznetsov.task_manager.dto.task.TaskResponseDto(" +
+            "t.id, t.title, t.description, t.status, t.priority, t.createdAt, t.updatedAt, t.version, " +
+            "t.owner.id, t.performer.id) FROM Task t";
+
+    /**
+     * Keyset-условие и порядок для лент задач: записи строго после курсора (createdAt, id)
+     * в порядке убывания, что соответствует индексам по (..., created_at DESC, id DESC).
+     */
+    String AFTER_CURSOR = "(t.createdAt, t.id) < (:createdAt, :id) ORDER BY t.createdAt DESC, t.id DESC";
+
+    /**
+     * Проверяет, существует ли задача с данным нормализованным заголовком.
+     *
+     * @param normalizedTitle Нормализованный заголовок задачи.
+     * @return true, если задача с таким заголовком существует.
+     */
+    boolean existsByNormalizedTitle(String normalizedTitle);
 
     /**
      * Проверяет, существует ли задача с данным заголовком.
+     * Заголовки сравниваются в нормализованном виде по уникальному индексу.
      *
      * @param title Заголовок задачи.
      * @return true, если задача с таким заголовком существует.
+     * @see Task#normalizeTitle(String)
      */
-    boolean existsByTitle(String title);
+    default boolean existsByTitle(String title) {
+        return existsByNormalizedTitle(Task.normalizeTitle(title));
+    }
+
+    /**
+     * Находит задачу по нормализованному заголовку.
+     *
+     * @param normalizedTitle Нормализованный заголовок задачи.
+     * @return Опциональная задача.
+     */
+    Optional<Task> findTaskByNormalizedTitle(String normalizedTitle);
 
     /**
      * Находит задачу по заголовку.
+     * Заголовки сравниваются в нормализованном виде по уникальному индексу.
      *
      * @param title Заголовок задачи.
      * @return Опциональная задача.
      */
-    Optional<Task> findTaskByTitle(String title);
+    default Optional<Task> findTaskByTitle(String title) {
+        return findTaskByNormalizedTitle(Task.normalizeTitle(title));
+    }
+
+    /**
+     * Находит идентификатор задачи по заголовку без загрузки сущности.
+     * Заголовки сравниваются в нормализованном виде по уникальному индексу.
+     *
+     * @param normalizedTitle Нормализованный заголовок задачи.
+     * @return Опциональный идентификатор задачи.
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.normalizedTitle = :normalizedTitle")
+    Optional<Long> findIdByNormalizedTitle(@Param("normalizedTitle") String normalizedTitle);
+
+    /**
+     * Находит среди переданных нормализованных заголовков уже занятые одним запросом.
+     *
+     * @param normalizedTitles Нормализованные заголовки для проверки.
+     * @return Занятые нормализованные заголовки.
+     */
+    @Query("SELECT t.normalizedTitle FROM Task t WHERE t.normalizedTitle IN :normalizedTitles")
+    Set<String> findExistingNormalizedTitles(@Param("normalizedTitles") Collection<String> normalizedTitles);
+
+    /**
+     * Возвращает нормализованные заголовки всех задач.
+     * Требует открытой транзакции, поток необходимо закрыть после чтения.
+     *
+     * @return Поток нормализованных заголовков.
+     */
+    @Query("SELECT t.normalizedTitle FROM Task t")
+    Stream<String> streamAllNormalizedTitles();
 
     /**
      * Находит задачи, заголовки которых содержат заданную часть строки.
      *
      * @param titlePart Часть заголовка.
      * @param pageable Параметры пагинации.
-     * @return Страница с задачами.
+     * @return Страница с DTO задач.
+     */
+    @Query(value = SELECT_TASK_RESPONSE + " WHERE t.title LIKE CONCAT('%', :titlePart, '%')",
+            countQuery = "SELECT COUNT(t) FROM Task t WHERE t.title LIKE CONCAT('%', :titlePart, '%')")
+    Page<TaskResponseDto> findTaskByTitleContaining(@Param("titlePart") String titlePart, Pageable pageable);
+
+    /**
+     * Находит идентификаторы задач, название или описание которых содержит строку,
+     * упорядоченные по триграммной близости (совпадение в названии весит вдвое больше).
+     * Запрос использует GIN-индексы {@code pg_trgm} и работает только в PostgreSQL.
+     *
+     * @param query Строка запроса.
+     * @param pattern Экранированный шаблон ILIKE вида {@code %строка%}.
+     * @param limit Максимальное количество результатов.
+     * @return Идентификаторы задач от наиболее к наименее релевантным.
+     */
+    @Query(value = "SELECT t.id FROM tasks t " +
+            "WHERE t.title ILIKE :pattern OR t.description ILIKE :pattern " +
+            "ORDER BY GREATEST(word_similarity(:query, t.title), word_similarity(:query, t.description) * 0.5) DESC, " +
+            "t.id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> searchRankedIds(@Param("query") String query, @Param("pattern") String pattern,
+                               @Param("limit") int limit);
+
+    /**
+     * Находит задачи по набору идентификаторов в виде DTO.
+     *
+     * @param ids Идентификаторы задач.
+     * @return Список DTO найденных задач в произвольном порядке.
      */
-    Page<Task> findTaskByTitleContaining(String titlePart, Pageable pageable);
+    @Query(SELECT_TASK_RESPONSE + " WHERE t.id IN :ids")
+    List<TaskResponseDto> findTaskResponsesByIdIn(@Param("ids") Collection<Long> ids);
 
     /**
      * Находит все задачи с учетом пагинации.
@@ -52,31 +154,119 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
      */
     Page<Task> findAll(Pageable pageable);
 
+    /**
+     * Находит все задачи с учетом пагинации в виде DTO.
+     *
+     * @param pageable Параметры пагинации.
+     * @return Страница с DTO задач.
+     */
+    @Query(value = SELECT_TASK_RESPONSE, countQuery = "SELECT COUNT(t) FROM Task t")
+    Page<TaskResponseDto> findAllTaskResponses(Pageable pageable);
+
+    /**
+     * Находит порцию задач после курсора.
+     *
+     * @param createdAt Дата создания последней выданной задачи.
+     * @param id Идентификатор последней выданной задачи.
+     * @param pageable Размер порции.
+     * @return Порция DTO задач.
+     */
+    @Query(SELECT_TASK_RESPONSE + " WHERE " + AFTER_CURSOR)
+    Slice<TaskResponseDto> findTaskResponsesAfter(@Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+
     /**
      * Находит задачи по статусу.
      *
      * @param status Статус задачи.
      * @param pageable Параметры пагинации.
-     * @return Страница с задачами.
+     * @return Страница с DTO задач.
      */
-    Page<Task> findTasksByStatus(String status, Pageable pageable);
+    @Query(value = SELECT_TASK_RESPONSE + " WHERE t.status = :status",
+            countQuery = "SELECT COUNT(t) FROM Task t WHERE t.status = :status")
+    Page<TaskResponseDto> findTasksByStatus(@Param("status") String status, Pageable pageable);
+
+    /**
+     * Находит порцию задач с указанным статусом после курсора.
+     *
+     * @param status Статус задачи.
+     * @param createdAt Дата создания последней выданной задачи.
+     * @param id Идентификатор последней выданной задачи.
+     * @param pageable Размер порции.
+     * @return Порция DTO задач.
+     */
+    @Query(SELECT_TASK_RESPONSE + " WHERE t.status = :status AND " + AFTER_CURSOR)
+    Slice<TaskResponseDto> findTaskResponsesByStatusAfter(@Param("status") String status,
+                                                          @Param("createdAt") LocalDateTime createdAt,
+                                                          @Param("id") Long id,
+                                                          Pageable pageable);
 
     /**
      * Находит задачи по приоритету.
      *
      * @param priority Приоритет задачи.
      * @param pageable Параметры пагинации.
-     * @return Страница с задачами.
+     * @return Страница с DTO задач.
      */
-    Page<Task> findTasksByPriority(String priority, Pageable pageable);
+    @Query(value = SELECT_TASK_RESPONSE + " WHERE t.priority = :priority",
+            countQuery = "SELECT COUNT(t) FROM Task t WHERE t.priority = :priority")
+    Page<TaskResponseDto> findTasksByPriority(@Param("priority") String priority, Pageable pageable);
 
     /**
-     * Удаляет задачу по заголовку.
+     * Находит порцию задач с указанным приоритетом после курсора.
      *
-     * @param title Заголовок задачи.
+     * @param priority Приоритет задачи.
+     * @param createdAt Дата создания последней выданной задачи.
+     * @param id Идентификатор последней выданной задачи.
+     * @param pageable Размер порции.
+     * @return Порция DTO задач.
+     */
+    @Query(SELECT_TASK_RESPONSE + " WHERE t.priority = :priority AND " + AFTER_CURSOR)
+    Slice<TaskResponseDto> findTaskResponsesByPriorityAfter(@Param("priority") String priority,
+                                                            @Param("createdAt") LocalDateTime createdAt,
+                                                            @Param("id") Long id,
+                                                            Pageable pageable);
+
+    /**
+     * Находит идентификаторы владельца и исполнителя задачи одним запросом,
+     * не загружая саму задачу и связанных пользователей.
+     *
+     * @param id Идентификатор задачи.
+     * @return Опциональная проекция для проверки прав доступа.
+     */
+    @Query("SELECT new com.tema_kuznetsov.task_manager.dto.task.TaskAccessDto(t.id, t.owner.id, t.performer.id) " +
+            "FROM Task t WHERE t.id = :id")
+    Optional<TaskAccessDto> findAccessById(@Param("id") Long id);
+
+    /**
+     * Находит версию задачи и время ее последнего изменения (или время создания, если изменений не было)
+     * без загрузки сущности.
+     *
+     * @param id Идентификатор задачи.
+     * @return Опциональная проекция для условных запросов.
+     */
+    @Query("SELECT new com.tema_kuznetsov.task_manager.dto.task.TaskVersionDto(" +
+            "t.version, COALESCE(t.updatedAt, t.createdAt)) FROM Task t WHERE t.id = :id")
+    Optional<TaskVersionDto> findVersionById(@Param("id") Long id);
+
+    /**
+     * Удаляет задачу по нормализованному заголовку.
+     *
+     * @param normalizedTitle Нормализованный заголовок задачи.
      */
     @Transactional
     @Modifying
-    @Query("DELETE FROM Task t WHERE t.title = :title")
-    void deleteTaskByTitle(@Param("title") String title);
+    @Query("DELETE FROM Task t WHERE t.normalizedTitle = :normalizedTitle")
+    void deleteTaskByNormalizedTitle(@Param("normalizedTitle") String normalizedTitle);
+
+    /**
+     * Удаляет задачу по заголовку.
+     * Заголовки сравниваются в нормализованном виде по уникальному индексу.
+     *
+     * @param title Заголовок задачи.
+     */
+    default void deleteTaskByTitle(String title) {
+        deleteTaskByNormalizedTitle(Task.normalizeTitle(title));
+    }
 }
\ No newline at end of file
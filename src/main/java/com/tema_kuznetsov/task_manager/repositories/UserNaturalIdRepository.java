@@ -0,0 +1,20 @@
+package com.tema_kuznetsov.task_manager.repositories;
+
+import com.tema_kuznetsov.task_manager.models.AppUser;
+
+import java.util.Optional;
+
+/**
+ * Фрагмент репозитория пользователей с загрузкой по натуральному идентификатору (email).
+ */
+public interface UserNaturalIdRepository {
+
+    /**
+     * Находит пользователя по email.
+     * При включенном кеше второго уровня идентификатор и сам пользователь берутся из кеша.
+     *
+     * @param email Email пользователя.
+     * @return Опциональный пользователь.
+     */
+    Optional<AppUser> findUserByEmail(String email);
+}
@@ -0,0 +1,26 @@
+package com.tema_kuznetsov.task_manager.repositories;
+
+import com.tema_kuznetsov.task_manager.models.AppUser;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Реализация {@link UserNaturalIdRepository} через {@link Session#bySimpleNaturalId(Class)}.
+ */
+public class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<AppUser> findUserByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(AppUser.class)
+                .loadOptional(email);
+    }
+}
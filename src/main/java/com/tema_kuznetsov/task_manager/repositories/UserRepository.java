@@ -10,14 +10,17 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с сущностью {@link AppUser}.
  * Предоставляет методы для работы с пользователями, включая их поиск и удаление.
+ * Поиск по email выполняется по натуральному идентификатору, см. {@link UserNaturalIdRepository}.
  */
 @Repository
-public interface UserRepository extends JpaRepository<AppUser, Long> {
+public interface UserRepository extends JpaRepository<AppUser, Long>, UserNaturalIdRepository {
 
     /**
      * Проверяет, существует ли пользователь с данным идентификатором.
@@ -70,12 +73,41 @@ public interface UserRepository extends JpaRepository<AppUser, Long> {
     Page<AppUser> findUsersByRole(String status, Pageable pageable);
 
     /**
-     * Находит пользователя по email.
+     * Находит текущую версию токенов пользователя без загрузки сущности.
      *
-     * @param email Email пользователя.
-     * @return Опциональный пользователь.
+     * @param id Идентификатор пользователя.
+     * @return Опциональная версия токенов.
+     */
+    @Query("SELECT a.tokenVersion FROM AppUser a WHERE a.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    /**
+     * Находит время последнего изменения пользователя (или время создания, если изменений не было)
+     * без загрузки сущности.
+     *
+     * @param id Идентификатор пользователя.
+     * @return Опциональное время последнего изменения.
+     */
+    @Query("SELECT COALESCE(a.updatedAt, a.createdAt) FROM AppUser a WHERE a.id = :id")
+    Optional<LocalDateTime> findLastModifiedById(@Param("id") Long id);
+
+    /**
+     * Возвращает логины всех пользователей.
+     * Требует открытой транзакции, поток необходимо закрыть после чтения.
+     *
+     * @return Поток логинов.
+     */
+    @Query("SELECT a.login FROM AppUser a")
+    Stream<String> streamAllLogins();
+
+    /**
+     * Возвращает email всех пользователей.
+     * Требует открытой транзакции, поток необходимо закрыть после чтения.
+     *
+     * @return Поток email.
      */
-    Optional<AppUser> findUserByEmail(String email);
+    @Query("SELECT a.email FROM AppUser a")
+    Stream<String> streamAllEmails();
 
     /**
      * Удаляет пользователя по логину.
@@ -0,0 +1,98 @@
+package com.tema_kuznetsov.task_manager.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Подбирает стоимость BCrypt под оборудование узла при старте приложения.
+ * Замеряет время хеширования на минимальной стоимости и выбирает наибольшую стоимость,
+ * при которой один хеш укладывается в целевое время (каждая следующая стоимость вдвое дороже).
+ * Явно заданная стоимость ({@code security.password-hashing.strength}) отключает калибровку.
+ * Выбранная стоимость и время хеширования на ней публикуются как метрики
+ * {@code password.hashing.strength} и {@code password.hashing.calibrated.duration}.
+ */
+@Component
+public class BCryptStrengthCalibrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+    private static final int SAMPLES = 3;
+
+    private final int strength;
+    private final double hashMillis;
+
+    /**
+     * Конструктор, выполняющий калибровку и регистрирующий метрики.
+     *
+     * @param configuredStrength явно заданная стоимость; 0 включает калибровку
+     * @param targetLatency целевое время одного хеша
+     * @param minStrength минимальная допустимая стоимость
+     * @param maxStrength максимальная допустимая стоимость
+     * @param meterRegistry реестр метрик
+     */
+    public BCryptStrengthCalibrator(@Value("${security.password-hashing.strength:0}") int configuredStrength,
+                                    @Value("${security.password-hashing.target-latency:250ms}") Duration targetLatency,
+                                    @Value("${security.password-hashing.min-strength:10}") int minStrength,
+                                    @Value("${security.password-hashing.max-strength:14}") int maxStrength,
+                                    MeterRegistry meterRegistry) {
+        if (configuredStrength > 0) {
+            this.strength = configuredStrength;
+        } else {
+            this.strength = calibrate(targetLatency, minStrength, maxStrength);
+        }
+        this.hashMillis = measureMillis(strength);
+        logger.info("Стоимость BCrypt: {} ({} мс на хеш)", strength, String.format("%.1f", hashMillis));
+
+        Gauge.builder("password.hashing.strength", () -> strength)
+                .description("Стоимость (log2 раундов) BCrypt")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.calibrated.duration", () -> hashMillis)
+                .description("Время одного хеша BCrypt на выбранной стоимости")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Возвращает выбранную стоимость BCrypt.
+     *
+     * @return стоимость (log2 раундов)
+     */
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Выбирает наибольшую стоимость из диапазона, при которой хеш укладывается в целевое время.
+     */
+    private static int calibrate(Duration targetLatency, int minStrength, int maxStrength) {
+        double baseMillis = measureMillis(minStrength);
+        double targetMillis = targetLatency.toNanos() / 1_000_000.0;
+        int extra = baseMillis > 0 ? (int) Math.floor(Math.log(targetMillis / baseMillis) / Math.log(2)) : 0;
+        return Math.max(minStrength, Math.min(maxStrength, minStrength + extra));
+    }
+
+    /**
+     * Возвращает медианное время хеширования на заданной стоимости после прогрева.
+     */
+    private static double measureMillis(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode(CALIBRATION_PASSWORD);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2] / 1_000_000.0;
+    }
+}
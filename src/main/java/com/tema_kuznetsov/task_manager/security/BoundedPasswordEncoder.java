@@ -0,0 +1,40 @@
+package com.tema_kuznetsov.task_manager.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder}, выполняющий хеширование и проверку паролей в {@link PasswordHashingExecutor}.
+ * Все места, где используется кодировщик (вход, регистрация, смена пароля), автоматически
+ * получают ограничение параллельности без изменения вызывающего кода.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    /**
+     * Конструктор, оборачивающий кодировщик.
+     *
+     * @param delegate кодировщик, выполняющий хеширование
+     * @param executor пул хеширования паролей
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
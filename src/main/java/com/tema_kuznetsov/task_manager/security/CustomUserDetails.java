@@ -17,6 +17,8 @@ public class CustomUserDetails implements UserDetails {
     private final Long id;
     private final String username;
     private final String password;
+    private final String role;
+    private final int tokenVersion;
     private final Collection<? extends GrantedAuthority> authorities;
 
     /**
@@ -29,6 +31,28 @@ public class CustomUserDetails implements UserDetails {
         this.id = user.getId();
         this.username = user.getEmail();
         this.password = user.getPassword();
+        this.role = user.getRole();
+        this.tokenVersion = user.getTokenVersion();
+        this.authorities = authorities;
+    }
+
+    /**
+     * Конструктор для создания экземпляра CustomUserDetails из claims stateless-токена.
+     * Пароль в таком экземпляре отсутствует, так как пользователь не загружается из базы данных.
+     *
+     * @param id Идентификатор пользователя.
+     * @param username Email пользователя.
+     * @param role Роль пользователя.
+     * @param tokenVersion Версия токенов пользователя на момент выпуска токена.
+     * @param authorities Коллекция ролей, присвоенных пользователю.
+     */
+    public CustomUserDetails(Long id, String username, String role, int tokenVersion,
+                             Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.password = null;
+        this.role = role;
+        this.tokenVersion = tokenVersion;
         this.authorities = authorities;
     }
 
@@ -0,0 +1,120 @@
+package com.tema_kuznetsov.task_manager.security;
+
+import com.tema_kuznetsov.task_manager.exceptions.securityException.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Выделенный пул потоков для хеширования паролей.
+ * Количество потоков и длина очереди ограничены, поэтому при наплыве входов и регистраций
+ * хеширование не занимает все процессоры и потоки Tomcat: лишние запросы сразу получают
+ * {@link PasswordHashingUnavailableException} (503 с заголовком Retry-After), а не ждут в очереди.
+ * Размер очереди, активные потоки и время хеширования публикуются как метрики {@code password.hashing}.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService monitoredExecutor;
+    private final Duration timeout;
+    private final long retryAfterSeconds;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    /**
+     * Конструктор, создающий пул и регистрирующий его метрики.
+     *
+     * @param threads количество потоков; 0 означает половину доступных процессоров
+     * @param queueCapacity максимальное количество ожидающих хеширования запросов
+     * @param timeout максимальное время ожидания результата
+     * @param retryAfter значение заголовка Retry-After при перегрузке
+     * @param meterRegistry реестр метрик
+     */
+    public PasswordHashingExecutor(@Value("${security.password-hashing.threads:0}") int threads,
+                                   @Value("${security.password-hashing.queue-capacity:100}") int queueCapacity,
+                                   @Value("${security.password-hashing.timeout:5s}") Duration timeout,
+                                   @Value("${security.password-hashing.retry-after:1s}") Duration retryAfter,
+                                   MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.monitoredExecutor = ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.hashing");
+        this.timeout = timeout;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.meterRegistry = meterRegistry;
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Запросы на хеширование, отклоненные из-за перегрузки")
+                .register(meterRegistry);
+        logger.info("Пул хеширования паролей: {} потоков, очередь {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Выполняет операцию с паролем в пуле хеширования и ожидает результат.
+     *
+     * @param operation название операции для метрик, например {@code encode} или {@code matches}
+     * @param task операция
+     * @param <T> тип результата
+     * @return результат операции
+     * @throws PasswordHashingUnavailableException если очередь заполнена или результат не получен вовремя
+     */
+    public <T> T execute(String operation, Supplier<T> task) {
+        Timer timer = Timer.builder("password.hashing.duration")
+                .description("Время хеширования пароля")
+                .tag("operation", operation)
+                .register(meterRegistry);
+
+        Future<T> future;
+        try {
+            future = monitoredExecutor.submit(() -> timer.record(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingUnavailableException(retryAfterSeconds);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingUnavailableException(retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException(retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Останавливает пул при завершении приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
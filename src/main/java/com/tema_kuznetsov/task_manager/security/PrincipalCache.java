@@ -0,0 +1,91 @@
+package com.tema_kuznetsov.task_manager.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Кеш аутентифицированных пользователей, индексируемый email.
+ * Избавляет каждый запрос с JWT от обращения к базе данных за {@link CustomUserDetails}.
+ * Записи ограничены по времени жизни и количеству; изменения пользователя
+ * должны явно сбрасывать запись через {@link #evict(String)}.
+ * Статистика попаданий и время загрузки публикуются как метрики кеша {@code principals}.
+ */
+@Component
+public class PrincipalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    private final boolean enabled;
+    private final Cache<String, CustomUserDetails> cache;
+
+    /**
+     * Конструктор, создающий кеш и регистрирующий его метрики.
+     *
+     * @param enabled включен ли кеш
+     * @param ttl время жизни записи
+     * @param maxSize максимальное количество записей
+     * @param meterRegistry реестр метрик
+     */
+    public PrincipalCache(@Value("${security.principal-cache.enabled:true}") boolean enabled,
+                          @Value("${security.principal-cache.ttl:5m}") Duration ttl,
+                          @Value("${security.principal-cache.max-size:10000}") long maxSize,
+                          MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    /**
+     * Возвращает пользователя из кеша или загружает его переданной функцией.
+     * Исключения загрузчика пробрасываются как есть и не кешируются.
+     *
+     * @param email email пользователя
+     * @param loader функция загрузки пользователя из базы данных
+     * @return данные пользователя
+     */
+    public CustomUserDetails get(String email, Function<String, CustomUserDetails> loader) {
+        if (!enabled) {
+            return loader.apply(email);
+        }
+        return cache.get(email, loader);
+    }
+
+    /**
+     * Удаляет пользователя из кеша.
+     * Если вызов происходит внутри транзакции, запись удаляется повторно после коммита,
+     * чтобы параллельный запрос не успел закешировать данные до фиксации изменений.
+     *
+     * @param email email пользователя
+     */
+    public void evict(String email) {
+        if (email == null) {
+            return;
+        }
+        logger.debug("Evicting cached principal: {}", email);
+        cache.invalidate(email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(email);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.tema_kuznetsov.task_manager.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tema_kuznetsov.task_manager.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Реестр актуальных версий токенов пользователей.
+ * Хранит в кеше значение {@code app_users.token_version}, чтобы stateless-токен можно было
+ * проверить без загрузки пользователя: если версия в токене совпадает с актуальной,
+ * данные пользователя берутся из claims.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    /**
+     * Значение, которым в кеше помечается отсутствующий пользователь.
+     */
+    private static final int MISSING_USER = -1;
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Integer> versions;
+
+    /**
+     * Конструктор, создающий кеш версий и регистрирующий его метрики.
+     *
+     * @param userRepository репозиторий пользователей
+     * @param ttl время, через которое версия перечитывается из базы данных
+     * @param maxSize максимальное количество записей
+     * @param meterRegistry реестр метрик
+     */
+    public TokenVersionRegistry(UserRepository userRepository,
+                                @Value("${jwt.stateless.version-ttl:30s}") Duration ttl,
+                                @Value("${jwt.stateless.version-cache-size:100000}") long maxSize,
+                                MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "token-versions");
+    }
+
+    /**
+     * Проверяет, совпадает ли версия токена с актуальной версией пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @param tokenVersion версия, записанная в токене
+     * @return true, если версия актуальна и пользователь существует
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        int current = versions.get(userId, id -> userRepository.findTokenVersionById(id).orElse(MISSING_USER));
+        return current != MISSING_USER && current == tokenVersion;
+    }
+
+    /**
+     * Сбрасывает закешированную версию пользователя.
+     * Внутри транзакции запись сбрасывается повторно после коммита.
+     *
+     * @param userId идентификатор пользователя
+     */
+    public void evict(Long userId) {
+        versions.invalidate(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.invalidate(userId);
+                }
+            });
+        }
+    }
+}
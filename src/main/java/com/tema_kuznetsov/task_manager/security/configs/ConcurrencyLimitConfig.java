@@ -0,0 +1,48 @@
+package com.tema_kuznetsov.task_manager.security.configs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tema_kuznetsov.task_manager.util.concurrency.AdaptiveConcurrencyLimitFilter;
+import com.tema_kuznetsov.task_manager.util.concurrency.AdaptiveConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Конфигурация сброса нагрузки.
+ * Фильтр адаптивного лимита конкурентности регистрируется перед цепочкой Spring Security,
+ * чтобы отклонять лишние запросы до аутентификации и обращения к базе данных.
+ */
+@Configuration
+@ConditionalOnProperty(name = "concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    /**
+     * Регистрирует фильтр адаптивного лимита конкурентности.
+     *
+     * @param limiter Адаптивный лимит одновременных запросов.
+     * @param objectMapper Объект для сериализации ответа об ошибке.
+     * @param criticalPaths Шаблоны путей, которые сбрасываются последними.
+     * @param sheddablePaths Шаблоны путей, которые сбрасываются первыми.
+     * @param retryAfter Значение заголовка Retry-After при отклонении запроса.
+     * @return Регистрация фильтра.
+     */
+    @Bean
+    public FilterRegistrationBean<AdaptiveConcurrencyLimitFilter> adaptiveConcurrencyLimitFilter(
+            AdaptiveConcurrencyLimiter limiter,
+            ObjectMapper objectMapper,
+            @Value("${concurrency-limit.critical-paths:/api/auth/validate,/api/users/me}") List<String> criticalPaths,
+            @Value("${concurrency-limit.sheddable-paths:/api/tasks/list/**,/api/users/list/**}") List<String> sheddablePaths,
+            @Value("${concurrency-limit.retry-after:1s}") Duration retryAfter) {
+        AdaptiveConcurrencyLimitFilter filter = new AdaptiveConcurrencyLimitFilter(limiter, objectMapper,
+                criticalPaths, sheddablePaths, Math.max(1, retryAfter.toSeconds()));
+        FilterRegistrationBean<AdaptiveConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
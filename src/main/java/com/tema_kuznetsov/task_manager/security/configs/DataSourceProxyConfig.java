@@ -0,0 +1,69 @@
+package com.tema_kuznetsov.task_manager.security.configs;
+
+import com.tema_kuznetsov.task_manager.util.sql.QueryStatsFilter;
+import com.tema_kuznetsov.task_manager.util.sql.QueryStatsListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Конфигурация наблюдения за SQL-запросами.
+ * Источник данных оборачивается datasource-proxy, который передает каждый запрос, а также получение
+ * и закрытие соединений в {@link QueryStatsListener}; фильтр {@link QueryStatsFilter} ограничивает
+ * статистику HTTP-запросом.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql.monitoring.enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceProxyConfig {
+
+    /**
+     * Оборачивает источники данных прокси, сообщающим о выполненных запросах.
+     * Слушатель запрашивается лениво, чтобы пост-процессор не создавал бины раньше времени.
+     *
+     * @param listener Слушатель выполненных запросов.
+     * @return Пост-процессор источников данных.
+     */
+    @Bean
+    public static BeanPostProcessor dataSourceProxyBeanPostProcessor(ObjectProvider<QueryStatsListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener.getObject())
+                            .methodListener(listener.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Регистрирует фильтр статистики SQL-запросов перед остальными фильтрами приложения.
+     *
+     * @param meterRegistry Реестр метрик.
+     * @param responseHeaders Добавлять ли статистику в заголовки ответа.
+     * @return Регистрация фильтра.
+     */
+    @Bean
+    public FilterRegistrationBean<QueryStatsFilter> queryStatsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${sql.monitoring.response-headers:false}") boolean responseHeaders) {
+        FilterRegistrationBean<QueryStatsFilter> registration =
+                new FilterRegistrationBean<>(new QueryStatsFilter(meterRegistry, responseHeaders));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+        return registration;
+    }
+}
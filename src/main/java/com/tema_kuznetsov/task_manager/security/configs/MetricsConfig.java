@@ -0,0 +1,30 @@
+package com.tema_kuznetsov.task_manager.security.configs;
+
+import com.tema_kuznetsov.task_manager.util.metrics.ServiceMetricsAspect;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Конфигурация метрик приложения.
+ * Таймеры вызовов репозиториев ({@code spring.data.repository.invocations}), пул соединений Hikari
+ * и HTTP-запросы инструментируются Spring Boot Actuator; здесь к таймерам репозиториев
+ * добавляется тег эндпоинта, из которого выполнен запрос.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Создает провайдер тегов для таймеров вызовов репозиториев.
+     *
+     * @return Провайдер тегов с тегом {@code endpoint}.
+     */
+    @Bean
+    public RepositoryTagsProvider repositoryTagsProvider() {
+        DefaultRepositoryTagsProvider defaults = new DefaultRepositoryTagsProvider();
+        return invocation -> Tags.of(defaults.repositoryTags(invocation))
+                .and("endpoint", ServiceMetricsAspect.currentEndpoint());
+    }
+}
@@ -0,0 +1,63 @@
+package com.tema_kuznetsov.task_manager.security.configs;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки реплик базы данных для чтения ({@code datasource.replicas.*}).
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "datasource.replicas")
+public class ReplicaDataSourceProperties {
+
+    /**
+     * Направлять ли транзакции только для чтения на реплики.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Время после записи, в течение которого чтения пользователя идут на основную базу данных.
+     */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    /**
+     * Интервал проверки доступности реплик.
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+    /**
+     * Максимальное время ожидания соединения с репликой. Меньше таймаута основного пула,
+     * чтобы при недоступной реплике чтение быстро переключалось на основную базу данных.
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Максимальный размер пула соединений каждой реплики.
+     */
+    private int maximumPoolSize = 10;
+
+    /**
+     * Подключения к репликам.
+     */
+    private List<Instance> instances = new ArrayList<>();
+
+    /**
+     * Подключение к реплике.
+     */
+    @Getter
+    @Setter
+    public static class Instance {
+
+        private String url;
+        private String username;
+        private String password;
+    }
+}
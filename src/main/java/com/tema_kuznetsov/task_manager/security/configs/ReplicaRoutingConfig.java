@@ -0,0 +1,105 @@
+package com.tema_kuznetsov.task_manager.security.configs;
+
+import com.tema_kuznetsov.task_manager.util.sql.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Конфигурация чтения с реплик ({@code datasource.replicas.enabled=true}).
+ * Основной пул создается из {@code spring.datasource.*}, пулы реплик — из {@code datasource.replicas.instances};
+ * транзакции {@code @Transactional(readOnly = true)} направляет на реплики {@link ReplicaRoutingDataSource}.
+ * Пулы не регистрируются как бины, поэтому в режиме виртуальных потоков семафор соединений
+ * применяется к каждому из них явно.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private ReplicaRoutingDataSource routingDataSource;
+
+    /**
+     * Создает маршрутизирующий источник данных.
+     * Соединение запрашивается лениво, чтобы признак {@code readOnly} транзакции был известен при выборе базы.
+     *
+     * @param dataSourceProperties Настройки основной базы данных.
+     * @param replicaProperties Настройки реплик.
+     * @param environment Окружение, из которого читаются настройки пула Hikari.
+     * @param meterRegistry Реестр метрик.
+     * @param boundedDataSource Пост-процессор семафора соединений, если включены виртуальные потоки.
+     * @return Источник данных приложения.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties,
+                                 ReplicaDataSourceProperties replicaProperties,
+                                 Environment environment,
+                                 MeterRegistry meterRegistry,
+                                 ObjectProvider<VirtualThreadsConfig.BoundedDataSourcePostProcessor> boundedDataSource) {
+        HikariDataSource primaryPool = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primaryPool));
+        DataSource primary = register(primaryPool, ReplicaRoutingDataSource.PRIMARY, meterRegistry, boundedDataSource);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaDataSourceProperties.Instance> instances = replicaProperties.getInstances();
+        for (int i = 0; i < instances.size(); i++) {
+            ReplicaDataSourceProperties.Instance instance = instances.get(i);
+            HikariDataSource replicaPool = new HikariDataSource();
+            replicaPool.setJdbcUrl(instance.getUrl());
+            replicaPool.setUsername(instance.getUsername());
+            replicaPool.setPassword(instance.getPassword());
+            replicaPool.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            replicaPool.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+            replicaPool.setReadOnly(true);
+            replicaPool.setConnectionTimeout(replicaProperties.getConnectionTimeout().toMillis());
+            // Недоступная при старте реплика не должна мешать запуску: чтения пойдут на основную базу
+            replicaPool.setInitializationFailTimeout(-1);
+            String name = "replica-" + i;
+            replicas.put(name, register(replicaPool, name, meterRegistry, boundedDataSource));
+        }
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, replicaProperties.getStickyWindow(),
+                meterRegistry);
+        routingDataSource.startHealthChecks(replicaProperties.getHealthCheckInterval());
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private DataSource register(HikariDataSource pool, String name, MeterRegistry meterRegistry,
+                                ObjectProvider<VirtualThreadsConfig.BoundedDataSourcePostProcessor> boundedDataSource) {
+        pool.setPoolName(name);
+        pool.setMetricRegistry(meterRegistry);
+        pools.add(pool);
+        VirtualThreadsConfig.BoundedDataSourcePostProcessor postProcessor = boundedDataSource.getIfAvailable();
+        return postProcessor != null ? (DataSource) postProcessor.postProcessAfterInitialization(pool, name) : pool;
+    }
+
+    /**
+     * Останавливает проверку реплик и закрывает пулы соединений.
+     */
+    @PreDestroy
+    public void close() {
+        if (routingDataSource != null) {
+            routingDataSource.close();
+        }
+        pools.forEach(HikariDataSource::close);
+    }
+}
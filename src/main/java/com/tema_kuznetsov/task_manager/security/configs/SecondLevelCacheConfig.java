@@ -0,0 +1,94 @@
+package com.tema_kuznetsov.task_manager.security.configs;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.tema_kuznetsov.task_manager.models.AppUser;
+import com.tema_kuznetsov.task_manager.models.Task;
+import com.tema_kuznetsov.task_manager.util.cache.EntityCacheInvalidationListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Конфигурация кеша второго уровня Hibernate на JCache поверх Caffeine.
+ * Включается свойством {@code spring.jpa.properties.hibernate.cache.use_second_level_cache=true}.
+ * Регионы создаются заранее с ограничением по размеру и времени жизни: по умолчанию
+ * {@code second-level-cache.max-size} и {@code second-level-cache.ttl}, для отдельного региона —
+ * {@code second-level-cache.<регион>.max-size} и {@code second-level-cache.<регион>.ttl}.
+ * Попадания, промахи и вытеснения каждого региона публикуются как метрики кеша с именем региона.
+ * Менеджер кешей создается отдельным провайдером, чтобы не разделять регионы между контекстами приложения.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class SecondLevelCacheConfig {
+
+    private static final List<String> REGIONS = List.of(
+            AppUser.CACHE_REGION, AppUser.NATURAL_ID_CACHE_REGION, Task.CACHE_REGION);
+
+    /**
+     * Создает менеджер кешей с регионами кеша второго уровня.
+     *
+     * @param environment Окружение, из которого читаются настройки регионов.
+     * @param defaultMaxSize Максимальное количество записей в регионе по умолчанию.
+     * @param defaultTtl Время жизни записи по умолчанию.
+     * @param meterRegistry Реестр метрик.
+     * @return Менеджер кешей JCache.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(Environment environment,
+                                                @Value("${second-level-cache.max-size:10000}") long defaultMaxSize,
+                                                @Value("${second-level-cache.ttl:10m}") Duration defaultTtl,
+                                                MeterRegistry meterRegistry) {
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+        for (String region : REGIONS) {
+            long maxSize = environment.getProperty("second-level-cache." + region + ".max-size",
+                    Long.class, defaultMaxSize);
+            Duration ttl = environment.getProperty("second-level-cache." + region + ".ttl",
+                    Duration.class, defaultTtl);
+
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            configuration.setStoreByValue(false);
+            configuration.setNativeStatisticsEnabled(true);
+
+            javax.cache.Cache<Object, Object> cache = cacheManager.createCache(region, configuration);
+            CaffeineCacheMetrics.monitor(meterRegistry,
+                    cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class), region);
+        }
+        return cacheManager;
+    }
+
+    /**
+     * Передает Hibernate менеджер кешей и слушатель, объявляющий об изменениях кешируемых сущностей.
+     *
+     * @param secondLevelCacheManager Менеджер кешей с регионами.
+     * @param eventPublisher Издатель событий Spring.
+     * @return Настройка свойств Hibernate.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager,
+                                                                    ApplicationEventPublisher eventPublisher) {
+        EntityCacheInvalidationListener invalidationListener = new EntityCacheInvalidationListener(eventPublisher);
+        return properties -> {
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put("hibernate.integrator_provider",
+                    (IntegratorProvider) () -> List.of(invalidationListener));
+        };
+    }
+}
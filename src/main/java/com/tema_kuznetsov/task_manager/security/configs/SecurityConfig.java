@@ -1,11 +1,19 @@
 package com.tema_kuznetsov.task_manager.security.configs;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tema_kuznetsov.task_manager.security.BCryptStrengthCalibrator;
+import com.tema_kuznetsov.task_manager.security.BoundedPasswordEncoder;
 import com.tema_kuznetsov.task_manager.security.CustomAccessDeniedHandler;
 import com.tema_kuznetsov.task_manager.security.JwtAuthenticationEntryPoint;
+import com.tema_kuznetsov.task_manager.security.PasswordHashingExecutor;
+import com.tema_kuznetsov.task_manager.security.TokenVersionRegistry;
 import com.tema_kuznetsov.task_manager.security.jwt.JwtAuthenticationFilter;
 import com.tema_kuznetsov.task_manager.security.jwt.JwtService;
+import com.tema_kuznetsov.task_manager.security.ratelimit.RateLimitFilter;
+import com.tema_kuznetsov.task_manager.security.ratelimit.RateLimitProperties;
+import com.tema_kuznetsov.task_manager.security.ratelimit.RateLimiter;
 import com.tema_kuznetsov.task_manager.services.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,12 +23,15 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.Map;
+
 /**
  * Конфигурация безопасности для приложения с использованием Spring Security.
  * Настроены фильтры для аутентификации через JWT, настройка доступа и обработки ошибок для аутентификации и авторизации.
@@ -33,6 +44,9 @@ public class SecurityConfig implements WebMvcConfigurer {
     private final CustomUserDetailsService userDetailsService;
     private final CustomAccessDeniedHandler accessDeniedHandler;
     private final JwtService jwtService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final BCryptStrengthCalibrator bCryptStrengthCalibrator;
     private final ObjectMapper objectMapper;
 
     /**
@@ -41,15 +55,24 @@ public class SecurityConfig implements WebMvcConfigurer {
      * @param userDetailsService Сервис для работы с пользователями.
      * @param accessDeniedHandler Обработчик ошибок доступа.
      * @param jwtService Сервис для работы с JWT токенами.
+     * @param tokenVersionRegistry Реестр актуальных версий токенов для stateless-режима.
+     * @param passwordHashingExecutor Ограниченный пул потоков для хеширования паролей.
+     * @param bCryptStrengthCalibrator Калибровка стоимости BCrypt под оборудование узла.
      * @param objectMapper Объект для сериализации/десериализации JSON.
      */
     public SecurityConfig(CustomUserDetailsService userDetailsService,
                           CustomAccessDeniedHandler accessDeniedHandler,
                           JwtService jwtService,
+                          TokenVersionRegistry tokenVersionRegistry,
+                          PasswordHashingExecutor passwordHashingExecutor,
+                          BCryptStrengthCalibrator bCryptStrengthCalibrator,
                           ObjectMapper objectMapper) {
         this.userDetailsService = userDetailsService;
         this.accessDeniedHandler = accessDeniedHandler;
         this.jwtService = jwtService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.bCryptStrengthCalibrator = bCryptStrengthCalibrator;
         this.objectMapper = objectMapper;
     }
 
@@ -71,17 +94,38 @@ public class SecurityConfig implements WebMvcConfigurer {
      */
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter(JwtAuthenticationEntryPoint authenticationEntryPoint) {
-        return new JwtAuthenticationFilter(jwtService, userDetailsService, authenticationEntryPoint);
+        return new JwtAuthenticationFilter(jwtService, userDetailsService, authenticationEntryPoint,
+                tokenVersionRegistry);
+    }
+
+    /**
+     * Создает бин для RateLimitFilter, который ограничивает частоту запросов клиента.
+     *
+     * @param rateLimiter Ограничитель частоты запросов.
+     * @param rateLimitProperties Бюджеты запросов по маршрутам.
+     * @param meterRegistry Реестр метрик.
+     * @return Фильтр ограничения частоты запросов.
+     */
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimiter rateLimiter, RateLimitProperties rateLimitProperties,
+                                           MeterRegistry meterRegistry) {
+        return new RateLimitFilter(rateLimiter, rateLimitProperties, jwtService, objectMapper, meterRegistry);
     }
 
     /**
      * Создает и возвращает PasswordEncoder для хеширования паролей.
+     * Хеширование выполняется в ограниченном пуле {@link PasswordHashingExecutor}, а не в потоках запросов.
+     * Новые хеши получают префикс {@code {bcrypt}} и откалиброванную стоимость; хеши без префикса
+     * и с меньшей стоимостью по-прежнему проверяются и пересчитываются при успешном входе.
      *
      * @return PasswordEncoder с использованием алгоритма BCrypt.
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bCryptStrengthCalibrator.getStrength());
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new BoundedPasswordEncoder(delegating, passwordHashingExecutor);
     }
 
     /**
@@ -103,16 +147,23 @@ public class SecurityConfig implements WebMvcConfigurer {
      * Конфигурирует безопасность приложения, включая авторизацию запросов и обработку ошибок.
      * Включает настройку фильтров безопасности и отключение CSRF защиты.
      *
+     * Ограничение частоты запросов выполняется до проверки JWT токена.
+     * Проверки состояния открыты для балансировщика, остальные эндпоинты actuator (метрики, prometheus)
+     * доступны только администратору.
+     *
      * @param http HttpSecurity для настройки безопасности.
+     * @param rateLimitFilter Фильтр ограничения частоты запросов.
      * @return Конфигурированная SecurityFilterChain.
      * @throws Exception Если возникает ошибка при конфигурации безопасности.
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, RateLimitFilter rateLimitFilter) throws Exception {
         http
                 .cors().and() // Включаем CORS
                 .authorizeHttpRequests(authz -> authz
                         .requestMatchers("/api/auth/**", "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html", "/error").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .exceptionHandling(exception -> exception
@@ -120,7 +171,8 @@ public class SecurityConfig implements WebMvcConfigurer {
                         .accessDeniedHandler(accessDeniedHandler)
                 )
                 .csrf(AbstractHttpConfigurer::disable)
-                .addFilterBefore(jwtAuthenticationFilter(authenticationEntryPoint()), UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter(authenticationEntryPoint()), UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
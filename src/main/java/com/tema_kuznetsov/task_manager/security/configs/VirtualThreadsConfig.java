@@ -0,0 +1,96 @@
+package com.tema_kuznetsov.task_manager.security.configs;
+
+import com.tema_kuznetsov.task_manager.util.concurrency.BoundedDataSource;
+import com.tema_kuznetsov.task_manager.util.concurrency.VirtualThreadPinningMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Конфигурация режима виртуальных потоков ({@code spring.threads.virtual.enabled=true}).
+ * Сам режим включает Spring Boot: запросы Tomcat и задачи {@code @Async} выполняются
+ * в виртуальных потоках. Здесь пул соединений Hikari ограничивается семафором
+ * {@link BoundedDataSource} и подключается диагностика закрепления виртуальных потоков.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    /**
+     * Оборачивает пул Hikari семафором с числом разрешений, равным размеру пула.
+     * Выполняется раньше остальных пост-процессоров источников данных, чтобы обернуть сам пул.
+     * Ожидание разрешения короче {@code connectionTimeout} Hikari: при исчерпании пула запрос
+     * быстро получает ошибку, а не удерживает виртуальный поток и клиента до таймаута пула.
+     *
+     * @param acquireTimeout Максимальное время ожидания разрешения на соединение.
+     * @param meterRegistry Реестр метрик.
+     * @return Пост-процессор источников данных.
+     */
+    @Bean
+    public static BoundedDataSourcePostProcessor boundedDataSourcePostProcessor(
+            @Value("${virtual-threads.datasource.acquire-timeout:2s}") Duration acquireTimeout,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BoundedDataSourcePostProcessor(acquireTimeout, meterRegistry);
+    }
+
+    /**
+     * Создает диагностику закрепления виртуальных потоков.
+     *
+     * @param threshold Минимальная длительность закрепления, о которой сообщается.
+     * @param meterRegistry Реестр метрик.
+     * @return Монитор событий закрепления.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "virtual-threads.pinning-monitor.enabled", havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${virtual-threads.pinning-monitor.threshold:20ms}") Duration threshold,
+            MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(threshold, meterRegistry);
+    }
+
+    /**
+     * Пост-процессор, оборачивающий пул Hikari в {@link BoundedDataSource}.
+     */
+    static class BoundedDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+        /**
+         * Размер пула Hikari по умолчанию.
+         */
+        private static final int DEFAULT_POOL_SIZE = 10;
+
+        private final Duration acquireTimeout;
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        BoundedDataSourcePostProcessor(Duration acquireTimeout, ObjectProvider<MeterRegistry> meterRegistry) {
+            this.acquireTimeout = acquireTimeout;
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource hikari) {
+                // До запуска пула Hikari хранит -1 вместо размера по умолчанию.
+                int poolSize = hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+                Duration poolTimeout = Duration.ofMillis(hikari.getConnectionTimeout());
+                BoundedDataSource bounded = new BoundedDataSource(hikari, poolSize,
+                        acquireTimeout.compareTo(poolTimeout) < 0 ? acquireTimeout : poolTimeout);
+                meterRegistry.ifAvailable(registry -> bounded.bindTo(registry, beanName));
+                return bounded;
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.tema_kuznetsov.task_manager.security.jwt;
 
+import com.tema_kuznetsov.task_manager.security.CustomUserDetails;
 import com.tema_kuznetsov.task_manager.security.JwtAuthenticationEntryPoint;
+import com.tema_kuznetsov.task_manager.security.TokenVersionRegistry;
 import com.tema_kuznetsov.task_manager.services.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,15 +29,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint entryPoint;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     public JwtAuthenticationFilter(
             JwtService jwtService,
             CustomUserDetailsService userDetailsService,
-            JwtAuthenticationEntryPoint entryPoint
+            JwtAuthenticationEntryPoint entryPoint,
+            TokenVersionRegistry tokenVersionRegistry
     ) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
         this.entryPoint = entryPoint;
+        this.tokenVersionRegistry = tokenVersionRegistry;
     }
 
     private static final Set<String> PUBLIC_PATHS = Set.of(
@@ -56,6 +62,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final Claims claims;
         final String userEmail;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -68,7 +75,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         logger.debug("Извлечён JWT: {}", jwt);
 
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            claims = jwtService.extractAllClaims(jwt);
+            userEmail = claims.getSubject();
             logger.debug("Извлечено имя пользователя из токена: {}", userEmail);
         } catch (Exception e) {
             logger.warn("Ошибка при валидации JWT: {}", e.getMessage());
@@ -83,10 +91,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+                UserDetails userDetails = resolveUserDetails(claims, userEmail);
                 logger.debug("Загружены данные пользователя: {}", userDetails.getUsername());
 
-                if (jwtService.isTokenValid(jwt, userDetails.getUsername())) {
+                if (jwtService.isTokenValid(claims, userDetails.getUsername())) {
                     logger.debug("Токен действителен для пользователя: {}", userEmail);
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -104,6 +112,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Возвращает данные пользователя для токена.
+     * Stateless-токен с актуальной версией используется без обращения к базе данных,
+     * в остальных случаях пользователь загружается через {@link CustomUserDetailsService}.
+     */
+    private UserDetails resolveUserDetails(Claims claims, String userEmail) {
+        CustomUserDetails principal = jwtService.extractPrincipal(claims);
+        if (principal != null && tokenVersionRegistry.isCurrent(principal.getId(), principal.getTokenVersion())) {
+            return principal;
+        }
+        return userDetailsService.loadUserByUsername(userEmail);
+    }
+
     private boolean isSwaggerPath(String path) {
         return path.startsWith("/v3/api-docs") || path.startsWith("/swagger-ui") || path.equals("/swagger-ui.html");
     }
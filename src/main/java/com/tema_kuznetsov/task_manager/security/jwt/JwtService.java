@@ -1,25 +1,92 @@
 package com.tema_kuznetsov.task_manager.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tema_kuznetsov.task_manager.security.CustomUserDetails;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+/**
+ * Сервис для выпуска и проверки JWT токенов.
+ * Ключ подписи и парсер создаются один раз, а уже проверенные токены хранятся
+ * в ограниченном по размеру кеше до момента их истечения, поэтому повторный запрос
+ * с тем же токеном не требует повторной проверки HMAC-подписи.
+ * В stateless-режиме ({@code jwt.stateless.enabled}) в токен дополнительно записываются
+ * идентификатор, роль и версия токенов пользователя.
+ * Время проверки токенов публикуется как таймер {@code jwt.verification} с тегом результата:
+ * {@code cached}, {@code verified} или {@code invalid}, статистика кеша — как метрики {@code cache.*}
+ * с именем {@code verified-tokens}.
+ */
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
 
-    @Value("${jwt.expiration}")
-    private long expiration;
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+    private static final String TOKEN_VERSION_CLAIM = "ver";
 
-    private Key getSignInKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    private final Key signInKey;
+    private final JwtParser parser;
+    private final long expiration;
+    private final boolean statelessEnabled;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private final Timer cachedVerifications;
+    private final Timer verifiedVerifications;
+    private final Timer invalidVerifications;
+
+    /**
+     * Конструктор, подготавливающий ключ подписи, парсер и кеш проверенных токенов.
+     *
+     * @param secret секрет для HMAC-подписи токенов
+     * @param expiration время жизни токена в миллисекундах
+     * @param cacheMaxSize максимальное количество проверенных токенов в кеше
+     * @param statelessEnabled выпускать ли токены с claims пользователя
+     * @param meterRegistry реестр метрик
+     */
+    public JwtService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration}") long expiration,
+                      @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+                      @Value("${jwt.stateless.enabled:false}") boolean statelessEnabled,
+                      MeterRegistry meterRegistry) {
+        this.signInKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        this.expiration = expiration;
+        this.statelessEnabled = statelessEnabled;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "verified-tokens");
+        this.cachedVerifications = verificationTimer("cached", meterRegistry);
+        this.verifiedVerifications = verificationTimer("verified", meterRegistry);
+        this.invalidVerifications = verificationTimer("invalid", meterRegistry);
+    }
+
+    private static Timer verificationTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("jwt.verification")
+                .description("Время проверки JWT токена")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     public String generateToken(String email) {
@@ -27,37 +94,173 @@ public class JwtService {
                 .setSubject(email)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Выпускает токен для пользователя.
+     * В stateless-режиме токен содержит идентификатор, роль и версию токенов пользователя,
+     * иначе только email.
+     *
+     * @param user данные аутентифицированного пользователя
+     * @return JWT токен
+     */
+    public String generateToken(CustomUserDetails user) {
+        if (!statelessEnabled) {
+            return generateToken(user.getUsername());
+        }
+        return Jwts.builder()
+                .setSubject(user.getUsername())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLE_CLAIM, user.getRole())
+                .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Восстанавливает данные пользователя из claims stateless-токена.
+     *
+     * @param claims claims проверенного токена
+     * @return данные пользователя или null, если stateless-режим выключен или токен не содержит нужных claims
+     */
+    public CustomUserDetails extractPrincipal(Claims claims) {
+        if (!statelessEnabled) {
+            return null;
+        }
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        Number tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+        if (userId == null || role == null || tokenVersion == null) {
+            return null;
+        }
+        return new CustomUserDetails(userId.longValue(), claims.getSubject(), role, tokenVersion.intValue(),
+                List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+    }
+
+    /**
+     * Возвращает идентификатор пользователя из claims токена.
+     *
+     * @param claims claims проверенного токена
+     * @return идентификатор пользователя или null, если токен выпущен без него
+     */
+    public Long extractUserId(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return userId != null ? userId.longValue() : null;
+    }
+
     public String extractUsername(String token) {
-        System.out.println("Извлечение имени пользователя из токена: " + token);
         return extractClaims(token, Claims::getSubject);
     }
 
     public boolean isTokenValid(String token, String userEmail) {
         try {
-            String extractedUsername = extractUsername(token);
-            boolean isValid = extractedUsername.equals(userEmail) && !isTokenExpired(token);
-            System.out.println("Токен действителен: " + isValid);
-            return isValid;
+            return isTokenValid(extractAllClaims(token), userEmail);
         } catch (Exception e) {
-            System.out.println("Ошибка при проверке токена: " + e.getMessage());
+            logger.debug("Ошибка при проверке токена: {}", e.getMessage());
             return false;
         }
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaims(token, Claims::getExpiration).before(new Date());
+    /**
+     * Проверяет уже извлеченные из токена claims: совпадение владельца и срок действия.
+     *
+     * @param claims claims проверенного токена
+     * @param userEmail email пользователя, которому должен принадлежать токен
+     * @return true, если токен принадлежит пользователю и не истек
+     */
+    public boolean isTokenValid(Claims claims, String userEmail) {
+        boolean isValid = userEmail.equals(claims.getSubject()) && !isTokenExpired(claims);
+        logger.debug("Токен действителен: {}", isValid);
+        return isValid;
+    }
+
+    /**
+     * Возвращает claims токена, проверяя подпись только при первом обращении.
+     * Кеш индексируется подписью токена; при попадании дополнительно сверяется
+     * подписанная часть, чтобы чужой заголовок или payload не могли использовать
+     * кешированную подпись.
+     *
+     * @param token JWT токен
+     * @return claims токена
+     * @throws JwtException если токен невалиден или истек
+     */
+    public Claims extractAllClaims(String token) {
+        long start = System.nanoTime();
+        int signatureStart = token.lastIndexOf('.');
+        if (signatureStart < 0) {
+            return verify(token, start);
+        }
+
+        String signature = token.substring(signatureStart + 1);
+        VerifiedToken cached = verifiedTokens.getIfPresent(signature);
+        if (cached != null && cached.matches(token, signatureStart) && !isTokenExpired(cached.claims())) {
+            cachedVerifications.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached.claims();
+        }
+
+        Claims claims = verify(token, start);
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(signature, new VerifiedToken(token.substring(0, signatureStart), claims));
+        }
+        return claims;
+    }
+
+    /**
+     * Проверяет подпись токена и записывает время проверки.
+     */
+    private Claims verify(String token, long start) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            verifiedVerifications.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (RuntimeException e) {
+            invalidVerifications.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private boolean isTokenExpired(Claims claims) {
+        Date tokenExpiration = claims.getExpiration();
+        return tokenExpiration != null && tokenExpiration.before(new Date());
     }
 
     private <T> T extractClaims(String token, Function<Claims, T> claimsResolver) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsResolver.apply(claims);
-    }
-}
\ No newline at end of file
+        return claimsResolver.apply(extractAllClaims(token));
+    }
+
+    /**
+     * Проверенный токен: подписанная часть (заголовок и payload) и извлеченные claims.
+     */
+    private record VerifiedToken(String signedContent, Claims claims) {
+
+        boolean matches(String token, int signatureStart) {
+            return signatureStart == signedContent.length() && token.startsWith(signedContent);
+        }
+    }
+
+    /**
+     * Политика вытеснения, удаляющая токен из кеша в момент его истечения ({@code exp}).
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.claims().getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
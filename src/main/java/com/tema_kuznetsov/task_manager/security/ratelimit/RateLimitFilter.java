@@ -0,0 +1,147 @@
+package com.tema_kuznetsov.task_manager.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tema_kuznetsov.task_manager.security.jwt.JwtService;
+import com.tema_kuznetsov.task_manager.util.ErrorResponse;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фильтр, ограничивающий частоту запросов клиента.
+ * Выполняется до {@link com.tema_kuznetsov.task_manager.security.jwt.JwtAuthenticationFilter},
+ * поэтому пользователь определяется по subject токена без загрузки из базы данных;
+ * подпись токена проверяется один раз и кешируется {@link JwtService}.
+ * В каждый ответ добавляются заголовки {@code RateLimit-Limit}, {@code RateLimit-Remaining}
+ * и {@code RateLimit-Reset}, при превышении бюджета возвращается 429 с {@code Retry-After}.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final String DEFAULT_ROUTE = "default";
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           RateLimitProperties properties,
+                           JwtService jwtService,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.jwtService = jwtService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        RateLimitProperties.Route route = resolveRoute(request);
+        RateLimitProperties.Budget budget = route != null ? route : properties.getDefaultBudget();
+        String routeName = route != null ? route.getPattern() : DEFAULT_ROUTE;
+        String key = routeName + "|" + resolveClient(request, budget.getKey());
+
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(key, budget.getLimit(), budget.getPeriod());
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(toSeconds(decision.resetNanos())));
+
+        if (!decision.allowed()) {
+            logger.debug("Превышен лимит запросов: {}", key);
+            Counter.builder("rate.limit.rejected")
+                    .description("Запросы, отклоненные из-за превышения лимита")
+                    .tag("route", routeName)
+                    .register(meterRegistry)
+                    .increment();
+
+            ErrorResponse errorResponse = new ErrorResponse(
+                    HttpStatus.TOO_MANY_REQUESTS,
+                    "Слишком много запросов, повторите позже",
+                    request.getRequestURI()
+            );
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(Math.max(1, toSeconds(decision.retryAfterNanos()))));
+            response.setContentType("application/json");
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Возвращает первый маршрут, совпавший по пути и методу, или null.
+     */
+    private RateLimitProperties.Route resolveRoute(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            if (route.getMethod() != null && !route.getMethod().equalsIgnoreCase(request.getMethod())) {
+                continue;
+            }
+            if (pathMatcher.match(route.getPattern(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает идентификатор клиента: идентификатор пользователя из токена, subject токена
+     * (для токенов без идентификатора) или IP-адрес.
+     * Идентификатор не меняется при смене email, поэтому бюджет пользователя сохраняется.
+     * Невалидный токен не отклоняется здесь, а учитывается по IP-адресу;
+     * ответ 401 формирует фильтр аутентификации.
+     * За обратным прокси адрес клиента восстанавливается из X-Forwarded-For
+     * ({@code server.forward-headers-strategy=native}), иначе все клиенты делили бы бюджет прокси.
+     */
+    private String resolveClient(HttpServletRequest request, RateLimitProperties.KeyType keyType) {
+        if (keyType == RateLimitProperties.KeyType.PRINCIPAL) {
+            String authHeader = request.getHeader("Authorization");
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                try {
+                    Claims claims = jwtService.extractAllClaims(authHeader.substring(7).strip());
+                    Long userId = jwtService.extractUserId(claims);
+                    if (userId != null) {
+                        return "uid:" + userId;
+                    }
+                    if (claims.getSubject() != null) {
+                        return "user:" + claims.getSubject();
+                    }
+                } catch (Exception e) {
+                    logger.debug("Токен не распознан, лимит считается по IP: {}", e.getMessage());
+                }
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
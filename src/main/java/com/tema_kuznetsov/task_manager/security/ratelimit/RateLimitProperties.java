@@ -0,0 +1,84 @@
+package com.tema_kuznetsov.task_manager.security.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки ограничения частоты запросов ({@code security.rate-limit.*}).
+ * Маршруты проверяются по порядку, применяется бюджет первого совпавшего;
+ * запросы, не попавшие ни в один маршрут, ограничиваются бюджетом по умолчанию.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "security.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Включено ли ограничение частоты запросов.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Время, после которого неиспользуемый бакет клиента удаляется из памяти.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Максимальное количество одновременно хранимых бакетов.
+     */
+    private long maxBuckets = 1_000_000;
+
+    /**
+     * Бюджет для запросов, не попавших ни в один маршрут.
+     */
+    private Budget defaultBudget = new Budget();
+
+    /**
+     * Бюджеты отдельных маршрутов.
+     */
+    private List<Route> routes = new ArrayList<>();
+
+    /**
+     * Способ определения клиента, которому принадлежит бакет.
+     */
+    public enum KeyType {
+        /**
+         * IP-адрес клиента.
+         */
+        IP,
+        /**
+         * Пользователь из JWT токена; без валидного токена используется IP-адрес.
+         */
+        PRINCIPAL
+    }
+
+    /**
+     * Бюджет запросов: не более {@code limit} запросов за {@code period}.
+     */
+    @Getter
+    @Setter
+    public static class Budget {
+
+        private long limit = 300;
+        private Duration period = Duration.ofMinutes(1);
+        private KeyType key = KeyType.PRINCIPAL;
+    }
+
+    /**
+     * Бюджет запросов для маршрута, заданного Ant-шаблоном пути и, опционально, HTTP методом.
+     */
+    @Getter
+    @Setter
+    public static class Route extends Budget {
+
+        private String pattern;
+        private String method;
+    }
+}
@@ -0,0 +1,82 @@
+package com.tema_kuznetsov.task_manager.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограничитель частоты запросов по алгоритму GCRA (generic cell rate algorithm).
+ * Состояние бакета — одно число, теоретическое время прихода следующего запроса,
+ * которое обновляется через CAS без блокировок. Бакеты хранятся в сегментированном
+ * кеше Caffeine, поэтому разные клиенты не конкурируют друг с другом, а неиспользуемые
+ * бакеты вытесняются по времени простоя и общему количеству.
+ * Статистика кеша публикуется как метрики кеша {@code rate-limit-buckets}.
+ */
+@Component
+public class RateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * Конструктор, создающий кеш бакетов и регистрирующий его метрики.
+     *
+     * @param properties настройки ограничения частоты запросов
+     * @param meterRegistry реестр метрик
+     */
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleTimeout())
+                .maximumSize(properties.getMaxBuckets())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate-limit-buckets");
+    }
+
+    /**
+     * Пытается списать один запрос из бакета клиента.
+     * Бакет вмещает {@code limit} запросов и полностью восстанавливается за {@code period}.
+     *
+     * @param key ключ бакета
+     * @param limit количество запросов за период
+     * @param period период восстановления бакета
+     * @return решение и данные для заголовков ответа
+     */
+    public Decision tryAcquire(String key, long limit, Duration period) {
+        long periodNanos = period.toNanos();
+        long interval = Math.max(1, periodNanos / Math.max(1, limit));
+        AtomicLong theoreticalArrival = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + interval;
+            long backlog = next - now;
+
+            if (backlog > periodNanos) {
+                long reset = Math.max(0, current - now);
+                return new Decision(false, limit, 0, reset, backlog - periodNanos);
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                long remaining = (periodNanos - backlog) / interval;
+                return new Decision(true, limit, remaining, backlog, 0);
+            }
+        }
+    }
+
+    /**
+     * Результат проверки бакета.
+     *
+     * @param allowed разрешен ли запрос
+     * @param limit количество запросов за период
+     * @param remaining сколько запросов еще можно выполнить без ожидания
+     * @param resetNanos через сколько наносекунд бакет полностью восстановится
+     * @param retryAfterNanos через сколько наносекунд можно повторить отклоненный запрос
+     */
+    public record Decision(boolean allowed, long limit, long remaining, long resetNanos, long retryAfterNanos) {
+    }
+}
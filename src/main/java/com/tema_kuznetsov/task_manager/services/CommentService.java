@@ -3,7 +3,10 @@ package com.tema_kuznetsov.task_manager.services;
 import com.tema_kuznetsov.task_manager.dto.comment.CommentCreateDto;
 import com.tema_kuznetsov.task_manager.dto.comment.CommentResponseDto;
 import com.tema_kuznetsov.task_manager.dto.comment.CommentUpdateDto;
+import com.tema_kuznetsov.task_manager.dto.comment.CommentVersionDto;
+import com.tema_kuznetsov.task_manager.dto.pagination.CursorPageDto;
 import com.tema_kuznetsov.task_manager.exceptions.commentException.CommentIdNotFoundException;
+import com.tema_kuznetsov.task_manager.exceptions.commentException.CommentVersionMismatchException;
 import com.tema_kuznetsov.task_manager.exceptions.taskException.TaskIdNotFoundException;
 import com.tema_kuznetsov.task_manager.exceptions.userException.emailException.UserEmailNotFoundException;
 import com.tema_kuznetsov.task_manager.models.AppUser;
@@ -11,9 +14,13 @@ import com.tema_kuznetsov.task_manager.models.Comment;
 import com.tema_kuznetsov.task_manager.repositories.CommentRepository;
 import com.tema_kuznetsov.task_manager.repositories.TaskRepository;
 import com.tema_kuznetsov.task_manager.repositories.UserRepository;
+import com.tema_kuznetsov.task_manager.util.CursorCodec;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -65,11 +72,26 @@ public class CommentService {
      * @return DTO с информацией о комментарии
      * @throws CommentIdNotFoundException если комментарий не найден
      */
+    @Transactional(readOnly = true)
     public CommentResponseDto findCommentById(Long id) {
         Comment comment = getCommentByIdOrThrow(id);
         return new CommentResponseDto(comment);
     }
 
+    /**
+     * Находит версию и время последнего изменения комментария одним легким запросом, не загружая комментарий.
+     * Используется для условных запросов (ETag, If-Modified-Since).
+     *
+     * @param id идентификатор комментария
+     * @return версия и время последнего изменения (или создания) комментария
+     * @throws CommentIdNotFoundException если комментарий не найден
+     */
+    @Transactional(readOnly = true)
+    public CommentVersionDto findCommentVersion(Long id) {
+        return commentRepository.findVersionById(id)
+                .orElseThrow(() -> new CommentIdNotFoundException(id));
+    }
+
     /**
      * Удаляет комментарий по его идентификатору.
      *
@@ -85,17 +107,31 @@ public class CommentService {
     /**
      * Обновляет комментарий по его идентификатору.
      * Обновляются только текстовые данные комментария.
+     * Если передана ожидаемая версия (из If-Match), обновление применяется только к этой версии:
+     * у комментария одно изменяемое поле, поэтому параллельные изменения не сливаются.
      *
      * @param id  идентификатор комментария
      * @param dto объект с обновленным текстом комментария
+     * @param expectedVersion ожидаемая версия комментария или null для безусловного обновления
      * @return DTO с информацией об обновленном комментарии
      * @throws CommentIdNotFoundException если комментарий не найден
+     * @throws CommentVersionMismatchException если версия устарела
      */
     @Transactional
-    public CommentResponseDto updateCommentById(Long id, CommentUpdateDto dto) {
+    public CommentResponseDto updateCommentById(Long id, CommentUpdateDto dto, Long expectedVersion) {
         Comment comment = getCommentByIdOrThrow(id);
+        if (expectedVersion != null && comment.getVersion() != expectedVersion) {
+            throw new CommentVersionMismatchException(id, expectedVersion);
+        }
         comment.setText(dto.getText());
-        comment = commentRepository.save(comment);
+        try {
+            comment = commentRepository.saveAndFlush(comment);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            throw new CommentVersionMismatchException(id, expectedVersion);
+        }
         return new CommentResponseDto(comment);
     }
 
@@ -106,11 +142,28 @@ public class CommentService {
      * @param pageable объект для пагинации
      * @return список комментариев в виде страниц
      */
+    @Transactional(readOnly = true)
     public Page<CommentResponseDto> getCommentsForTask(Long taskId, Pageable pageable) {
         return commentRepository.findByTaskIdOrderByCreatedAtDesc(taskId, pageable)
                 .map(CommentResponseDto::new);
     }
 
+    /**
+     * Получает порцию комментариев к задаче после курсора, от новых к старым.
+     *
+     * @param taskId  идентификатор задачи
+     * @param after курсор последнего полученного комментария или null для первой порции
+     * @param size размер порции
+     * @return порция комментариев с курсором следующей порции
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<CommentResponseDto> getCommentsForTaskAfter(Long taskId, String after, int size) {
+        CursorCodec.Cursor cursor = CursorCodec.decode(after);
+        Slice<CommentResponseDto> comments = commentRepository.findResponsesByTaskIdAfter(
+                taskId, cursor.createdAt(), cursor.id(), PageRequest.of(0, size));
+        return new CursorPageDto<>(comments, CommentResponseDto::getCreatedAt, CommentResponseDto::getId);
+    }
+
     /**
      * Получает комментарии для указанного пользователя.
      *
@@ -118,6 +171,7 @@ public class CommentService {
      * @param pageable объект для пагинации
      * @return список комментариев в виде страниц
      */
+    @Transactional(readOnly = true)
     public Page<CommentResponseDto> getCommentsForUser(Long userId, Pageable pageable) {
         return commentRepository.findByAuthorIdOrderByCreatedAtDesc(userId, pageable)
                 .map(CommentResponseDto::new);
@@ -5,6 +5,9 @@ import com.tema_kuznetsov.task_manager.models.AppUser;
 import com.tema_kuznetsov.task_manager.models.enums.UserRole;
 import com.tema_kuznetsov.task_manager.repositories.UserRepository;
 import com.tema_kuznetsov.task_manager.security.CustomUserDetails;
+import com.tema_kuznetsov.task_manager.security.PrincipalCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,10 +24,11 @@ import java.util.List;
 
 /**
  * Сервис для работы с деталями пользователя.
- * Реализует загрузку пользователя по email и создание нового пользователя.
+ * Реализует загрузку пользователя по email, создание нового пользователя
+ * и пересчет хеша пароля при изменении параметров кодировщика.
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
@@ -32,20 +36,33 @@ public class CustomUserDetailsService implements UserDetailsService {
     private UserRepository userRepository;
 
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final UserIdentityRegistry userIdentityRegistry;
+    private final Counter passwordUpgrades;
 
     /**
      * Конструктор, инициализирующий сервис.
-     * Используется для внедрения зависимости `PasswordEncoder`.
+     * Используется для внедрения зависимостей `PasswordEncoder`, кеша пользователей и реестра логинов и email.
      *
      * @param passwordEncoder объект для кодирования паролей
+     * @param principalCache кеш аутентифицированных пользователей
+     * @param userIdentityRegistry реестр занятых логинов и email
+     * @param meterRegistry реестр метрик
      */
     @Lazy
-    public CustomUserDetailsService(PasswordEncoder passwordEncoder) {
+    public CustomUserDetailsService(PasswordEncoder passwordEncoder, PrincipalCache principalCache,
+                                    UserIdentityRegistry userIdentityRegistry, MeterRegistry meterRegistry) {
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
+        this.userIdentityRegistry = userIdentityRegistry;
+        this.passwordUpgrades = Counter.builder("password.hashing.upgraded")
+                .description("Хеши паролей, пересчитанные при входе")
+                .register(meterRegistry);
     }
 
     /**
      * Загружает пользователя по email.
+     * Повторные обращения обслуживаются из {@link PrincipalCache} без запроса к базе данных.
      * В случае, если пользователь не найден, выбрасывается исключение {@link UsernameNotFoundException}.
      *
      * @param email email пользователя
@@ -54,6 +71,17 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        return principalCache.get(email, this::loadUserFromDatabase);
+    }
+
+    /**
+     * Загружает пользователя по email из базы данных.
+     *
+     * @param email email пользователя
+     * @return данные пользователя
+     * @throws UsernameNotFoundException если пользователь не найден
+     */
+    private CustomUserDetails loadUserFromDatabase(String email) {
         logger.debug("Attempting to load user by email: {}", email);
 
         AppUser user = userRepository.findUserByEmail(email).orElse(null);
@@ -72,9 +100,34 @@ public class CustomUserDetailsService implements UserDetailsService {
         return new CustomUserDetails(user, List.of(authority));
     }
 
+    /**
+     * Сохраняет пересчитанный хеш пароля пользователя.
+     * Вызывается Spring Security после успешного входа, если сохраненный хеш устарел:
+     * записан без префикса алгоритма или с меньшей стоимостью, чем текущая.
+     *
+     * @param user данные пользователя
+     * @param newPassword новый хеш пароля
+     * @return данные пользователя с обновленным хешем
+     * @throws UsernameNotFoundException если пользователь не найден
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        AppUser appUser = userRepository.findUserByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        appUser.setPassword(newPassword);
+        principalCache.evict(appUser.getEmail());
+        passwordUpgrades.increment();
+        logger.debug("Password hash upgraded for user: {}", appUser.getEmail());
+
+        return new CustomUserDetails(appUser, user.getAuthorities());
+    }
+
     /**
      * Создает нового пользователя.
      * Задает роль по умолчанию `USER` и шифрует пароль перед сохранением.
+     * Уникальность логина и email окончательно проверяется ограничениями базы данных при вставке,
+     * поэтому пользователь сразу записывается в базу данных.
      *
      * @param dto объект, содержащий информацию о новом пользователе
      * @return созданный объект {@link AppUser}
@@ -88,6 +141,8 @@ public class CustomUserDetailsService implements UserDetailsService {
         appUser.setPassword(passwordEncoder.encode(dto.getPassword()));
         logger.info("Creating user with email: {}", dto.getEmail());
 
-        return userRepository.save(appUser);
+        AppUser savedUser = userRepository.saveAndFlush(appUser);
+        userIdentityRegistry.register(savedUser);
+        return savedUser;
     }
 }
\ No newline at end of file
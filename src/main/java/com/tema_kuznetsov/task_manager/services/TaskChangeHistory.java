@@ -0,0 +1,154 @@
+package com.tema_kuznetsov.task_manager.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Недавняя история изменений задач: какие поля {@link com.tema_kuznetsov.task_manager.dto.task.TaskUpdateDto}
+ * изменила каждая версия задачи. Используется для автоматического слияния условного обновления
+ * с устаревшей версией в If-Match: если ни одна из версий после ожидаемой клиентом не меняла поля,
+ * которые меняет клиент, изменения не пересекаются и обновление применяется к текущей версии.
+ * История хранится в памяти экземпляра и записывается после коммита; при пропуске хотя бы одной версии
+ * (другой экземпляр приложения, пакетное обновление, вытеснение из кеша) слияние не выполняется
+ * и клиент получает 412. Счетчик {@code task.auto-merge} публикуется с тегом {@code result=merged|rejected}.
+ */
+@Component
+public class TaskChangeHistory {
+
+    /**
+     * Максимальное число версий, хранимых для одной задачи.
+     */
+    private static final int MAX_VERSIONS_PER_TASK = 32;
+
+    private final boolean enabled;
+    private final Cache<Long, NavigableMap<Long, Set<String>>> changes;
+    private final Counter merged;
+    private final Counter rejected;
+
+    /**
+     * Конструктор, создающий хранилище истории и регистрирующий счетчики слияний.
+     *
+     * @param enabled включено ли автоматическое слияние
+     * @param maxTasks максимальное число задач, для которых хранится история
+     * @param ttl время хранения истории задачи после последнего изменения
+     * @param meterRegistry реестр метрик
+     */
+    public TaskChangeHistory(@Value("${task.auto-merge.enabled:true}") boolean enabled,
+                             @Value("${task.auto-merge.max-tasks:10000}") long maxTasks,
+                             @Value("${task.auto-merge.ttl:10m}") Duration ttl,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.changes = Caffeine.newBuilder()
+                .maximumSize(maxTasks)
+                .expireAfterWrite(ttl)
+                .build();
+        this.merged = Counter.builder("task.auto-merge")
+                .description("Условные обновления задач с устаревшей версией")
+                .tag("result", "merged")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("task.auto-merge")
+                .description("Условные обновления задач с устаревшей версией")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Проверяет, можно ли применить изменение полей, сделанное клиентом от версии {@code baseVersion},
+     * к текущей версии задачи.
+     *
+     * @param taskId идентификатор задачи
+     * @param baseVersion версия, от которой клиент делал изменение
+     * @param currentVersion текущая версия задачи
+     * @param fields поля, которые меняет клиент
+     * @return true, если все промежуточные версии известны и не меняли эти поля
+     */
+    public boolean canMerge(Long taskId, long baseVersion, long currentVersion, Set<String> fields) {
+        boolean mergeable = enabled && isDisjoint(changes.getIfPresent(taskId), baseVersion, currentVersion, fields);
+        (mergeable ? merged : rejected).increment();
+        return mergeable;
+    }
+
+    /**
+     * Запоминает поля, измененные версией задачи.
+     * Внутри транзакции запись выполняется после коммита, чтобы откат не оставил ложной истории.
+     *
+     * @param taskId идентификатор задачи
+     * @param version версия задачи после изменения
+     * @param fields измененные поля
+     */
+    public void record(Long taskId, long version, Set<String> fields) {
+        if (!enabled) {
+            return;
+        }
+        Set<String> changed = Set.copyOf(fields);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(taskId, version, changed);
+                }
+            });
+        } else {
+            put(taskId, version, changed);
+        }
+    }
+
+    /**
+     * Забывает историю задач, измененных в обход сущности (например, пакетным обновлением):
+     * их новые версии неизвестны, поэтому слияние для них невозможно до следующих изменений.
+     * Внутри транзакции история удаляется повторно после коммита.
+     *
+     * @param taskIds идентификаторы задач
+     */
+    public void forget(Collection<Long> taskIds) {
+        changes.invalidateAll(taskIds);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changes.invalidateAll(taskIds);
+                }
+            });
+        }
+    }
+
+    private void put(Long taskId, long version, Set<String> fields) {
+        changes.asMap().compute(taskId, (id, history) -> {
+            NavigableMap<Long, Set<String>> versions = history != null ? history : new ConcurrentSkipListMap<>();
+            versions.put(version, fields);
+            while (versions.size() > MAX_VERSIONS_PER_TASK) {
+                versions.pollFirstEntry();
+            }
+            return versions;
+        });
+    }
+
+    private static boolean isDisjoint(NavigableMap<Long, Set<String>> history, long baseVersion,
+                                      long currentVersion, Set<String> fields) {
+        if (history == null || baseVersion < 0 || baseVersion >= currentVersion
+                || currentVersion - baseVersion > MAX_VERSIONS_PER_TASK) {
+            return false;
+        }
+        Map<Long, Set<String>> intermediate = history.subMap(baseVersion, false, currentVersion, true);
+        if (intermediate.size() != currentVersion - baseVersion) {
+            return false;
+        }
+        return intermediate.values().stream().allMatch(changed -> Collections.disjoint(changed, fields));
+    }
+}
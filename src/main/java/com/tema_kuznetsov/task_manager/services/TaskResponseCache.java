@@ -0,0 +1,150 @@
+package com.tema_kuznetsov.task_manager.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tema_kuznetsov.task_manager.dto.task.TaskResponseDto;
+import com.tema_kuznetsov.task_manager.util.sql.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Кеш готовых JSON-ответов {@code GET /api/tasks/{id}} в виде байтов UTF-8, индексируемый идентификатором задачи.
+ * Ответ из кеша записывается в поток без повторной загрузки задачи и сериализации.
+ * Вместе с ответом хранятся версия и время изменения задачи, поэтому условный запрос к закешированной задаче
+ * получает 304 без обращения к базе.
+ * Размер кеша ограничен суммарным объемом ответов ({@code task.response-cache.max-size}), а не числом записей.
+ * Все изменяющие задачу методы должны сбрасывать запись через {@link #evict(Long)};
+ * параллельная загрузка той же задачи завершается до сброса, поэтому устаревший ответ не возвращается в кеш.
+ * Задача для кеша читается с основной базы ({@link ReplicaRoutingDataSource#readFromPrimary}): ответ из отстающей
+ * реплики после сброса записи отдавался бы всем пользователям до истечения {@code task.response-cache.ttl}.
+ * Статистика попаданий публикуется как метрики кеша {@code task-responses}.
+ */
+@Component
+public class TaskResponseCache {
+
+    /**
+     * Оценка накладных расходов на запись кеша сверх самого ответа.
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Cache<Long, CachedTask> cache;
+
+    /**
+     * Сериализованная задача с данными для ее ETag и Last-Modified.
+     *
+     * @param json JSON задачи в UTF-8
+     * @param version версия задачи
+     * @param lastModified время последнего изменения задачи или время создания, если изменений не было
+     */
+    public record CachedTask(byte[] json, long version, LocalDateTime lastModified) {
+    }
+
+    /**
+     * Конструктор, создающий кеш и регистрирующий его метрики.
+     *
+     * @param objectMapper сериализатор ответов, настроенный так же, как для остальных ответов
+     * @param enabled включен ли кеш
+     * @param maxSize максимальный суммарный объем ответов в кеше
+     * @param ttl время жизни записи
+     * @param meterRegistry реестр метрик
+     */
+    public TaskResponseCache(ObjectMapper objectMapper,
+                             @Value("${task.response-cache.enabled:true}") boolean enabled,
+                             @Value("${task.response-cache.max-size:16MB}") DataSize maxSize,
+                             @Value("${task.response-cache.ttl:5m}") Duration ttl,
+                             MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Long id, CachedTask task) -> task.json().length + ENTRY_OVERHEAD_BYTES)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "task-responses");
+    }
+
+    /**
+     * Возвращает сериализованную задачу из кеша или загружает ее переданной функцией с основной базы.
+     * Исключения загрузчика пробрасываются как есть и не кешируются.
+     *
+     * @param id идентификатор задачи
+     * @param loader функция загрузки задачи
+     * @return сериализованная задача
+     */
+    public CachedTask get(Long id, Function<Long, TaskResponseDto> loader) {
+        if (!enabled) {
+            return serialize(loader.apply(id));
+        }
+        return cache.get(id, key -> serialize(ReplicaRoutingDataSource.readFromPrimary(() -> loader.apply(key))));
+    }
+
+    /**
+     * Возвращает сериализованную задачу, если она есть в кеше.
+     *
+     * @param id идентификатор задачи
+     * @return сериализованная задача или null, если ее нет в кеше или кеш выключен
+     */
+    public CachedTask getIfPresent(Long id) {
+        return enabled ? cache.getIfPresent(id) : null;
+    }
+
+    /**
+     * Удаляет ответ для задачи.
+     * Внутри транзакции запись удаляется повторно после коммита.
+     *
+     * @param id идентификатор задачи
+     */
+    public void evict(Long id) {
+        cache.invalidate(id);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(id);
+                }
+            });
+        }
+    }
+
+    /**
+     * Удаляет все ответы, например после удаления пользователя вместе с его задачами.
+     * Внутри транзакции кеш очищается повторно после коммита.
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll();
+                }
+            });
+        }
+    }
+
+    private CachedTask serialize(TaskResponseDto task) {
+        LocalDateTime lastModified = task.getUpdatedAt() != null ? task.getUpdatedAt() : task.getCreatedAt();
+        try {
+            return new CachedTask(objectMapper.writeValueAsBytes(task), task.getVersion(), lastModified);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
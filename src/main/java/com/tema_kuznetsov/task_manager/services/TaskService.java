@@ -1,10 +1,17 @@
 package com.tema_kuznetsov.task_manager.services;
 
 import com.tema_kuznetsov.task_manager.dto.comment.CommentResponseDto;
+import com.tema_kuznetsov.task_manager.dto.pagination.CursorPageDto;
+import com.tema_kuznetsov.task_manager.dto.task.TaskBulkResultDto;
+import com.tema_kuznetsov.task_manager.dto.task.TaskBulkUpdateDto;
+import com.tema_kuznetsov.task_manager.dto.task.TaskBulkUpdateResultDto;
 import com.tema_kuznetsov.task_manager.dto.task.TaskCreateDto;
 import com.tema_kuznetsov.task_manager.dto.task.TaskResponseDto;
 import com.tema_kuznetsov.task_manager.dto.task.TaskUpdateDto;
+import com.tema_kuznetsov.task_manager.dto.task.TaskVersionDto;
+import com.tema_kuznetsov.task_manager.exceptions.taskException.TaskBulkLimitExceededException;
 import com.tema_kuznetsov.task_manager.exceptions.taskException.TaskIdNotFoundException;
+import com.tema_kuznetsov.task_manager.exceptions.taskException.TaskVersionMismatchException;
 import com.tema_kuznetsov.task_manager.exceptions.taskException.titleException.TaskTitleNotFoundException;
 import com.tema_kuznetsov.task_manager.exceptions.userException.emailException.UserEmailNotFoundException;
 import com.tema_kuznetsov.task_manager.exceptions.userException.ownerException.OwnerIdNotFoundException;
@@ -13,15 +20,39 @@ import com.tema_kuznetsov.task_manager.models.AppUser;
 import com.tema_kuznetsov.task_manager.models.Task;
 import com.tema_kuznetsov.task_manager.repositories.TaskRepository;
 import com.tema_kuznetsov.task_manager.repositories.UserRepository;
+import com.tema_kuznetsov.task_manager.services.search.TaskSearchIndex;
+import com.tema_kuznetsov.task_manager.util.SecurityUtils;
+import com.tema_kuznetsov.task_manager.util.cache.EntityCacheInvalidator;
+import com.tema_kuznetsov.task_manager.validators.taskValidators.UniqueTaskTitleValidator;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import com.tema_kuznetsov.task_manager.util.CursorCodec;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.validator.HibernateValidatorFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.core.Authentication;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * Сервис для работы с задачами.
  * Предоставляет методы для создания, обновления, удаления и поиска задач.
@@ -29,13 +60,38 @@ import org.springframework.security.core.Authentication;
 @RequiredArgsConstructor
 @Service
 public class TaskService {
+    /**
+     * Имена полей {@link TaskUpdateDto} для истории изменений и слияния условных обновлений.
+     */
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_DESCRIPTION = "description";
+    private static final String FIELD_STATUS = "status";
+    private static final String FIELD_PRIORITY = "priority";
+    private static final String FIELD_OWNER = "ownerId";
+    private static final String FIELD_PERFORMER = "performerId";
+
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final CommentService commentService;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskTitleRegistry taskTitleRegistry;
+    private final ValidatorFactory validatorFactory;
+    private final EntityManager entityManager;
+    private final EntityCacheInvalidator entityCacheInvalidator;
+    private final TaskResponseCache taskResponseCache;
+    private final TaskChangeHistory taskChangeHistory;
+
+    @Value("${task.bulk.max-items:10000}")
+    private int bulkMaxItems;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
 
     /**
      * Создает новую задачу.
      * Включает в себя установку владельца задачи (из аутентификации пользователя) и исполнителя (если указан).
+     * Задача сразу записывается в базу данных, чтобы нарушение уникальности заголовка
+     * было обнаружено внутри метода.
      *
      * @param dto объект, содержащий информацию о новой задаче
      * @return созданная задача
@@ -59,7 +115,100 @@ public class TaskService {
                     .orElseThrow(() -> new PerformerIdNotFoundException(dto.getPerformerId())));
         }
 
-        return taskRepository.save(task);
+        Task savedTask = taskRepository.saveAndFlush(task);
+        taskTitleRegistry.register(savedTask.getTitle());
+        taskSearchIndex.index(savedTask.getId(), savedTask.getTitle(), savedTask.getDescription());
+        return savedTask;
+    }
+
+    /**
+     * Создает задачи пакетом от имени текущего пользователя.
+     * Все элементы сначала валидируются, исполнители и уже занятые заголовки загружаются
+     * по одному запросу на пакет, а корректные задачи вставляются JDBC-пакетами. Некорректные элементы не прерывают
+     * обработку и возвращаются со списком ошибок.
+     *
+     * @param dtos задачи для создания
+     * @return результаты в порядке входных элементов
+     * @throws TaskBulkLimitExceededException если элементов больше допустимого
+     */
+    @Transactional
+    public List<TaskBulkResultDto> createTasks(List<TaskCreateDto> dtos) {
+        if (dtos.size() > bulkMaxItems) {
+            throw new TaskBulkLimitExceededException(bulkMaxItems);
+        }
+
+        Set<Long> performerIds = new HashSet<>();
+        for (TaskCreateDto dto : dtos) {
+            if (dto != null && dto.getPerformerId() != null) {
+                performerIds.add(dto.getPerformerId());
+            }
+        }
+        Map<Long, AppUser> performers = userRepository.findAllById(performerIds).stream()
+                .collect(Collectors.toMap(AppUser::getId, Function.identity()));
+        AppUser owner = userRepository.getReferenceById(SecurityUtils.getCurrentUserId());
+        Validator validator = bulkValidator(dtos);
+
+        TaskBulkResultDto[] results = new TaskBulkResultDto[dtos.size()];
+        List<Integer> indexes = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+        Set<String> titles = new HashSet<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            TaskCreateDto dto = dtos.get(i);
+            List<String> errors = validateBulkItem(validator, dto, performers, titles);
+            if (!errors.isEmpty()) {
+                results[i] = TaskBulkResultDto.rejected(i, errors);
+                continue;
+            }
+
+            Task task = new Task();
+            task.setTitle(dto.getTitle());
+            task.setDescription(dto.getDescription());
+            task.setStatus(dto.getStatus());
+            task.setPriority(dto.getPriority());
+            task.setOwner(owner);
+            task.setPerformer(dto.getPerformerId() != null ? performers.get(dto.getPerformerId()) : null);
+            indexes.add(i);
+            tasks.add(task);
+        }
+
+        for (int from = 0; from < tasks.size(); from += batchSize) {
+            List<Task> chunk = tasks.subList(from, Math.min(from + batchSize, tasks.size()));
+            taskRepository.saveAll(chunk);
+            entityManager.flush();
+            for (int j = 0; j < chunk.size(); j++) {
+                Task task = chunk.get(j);
+                results[indexes.get(from + j)] = TaskBulkResultDto.created(indexes.get(from + j), task.getId());
+                taskTitleRegistry.register(task.getTitle());
+                taskSearchIndex.index(task.getId(), task.getTitle(), task.getDescription());
+            }
+            entityManager.clear();
+        }
+
+        return List.of(results);
+    }
+
+    /**
+     * Обновляет статус, приоритет и исполнителя задач одним запросом без загрузки сущностей.
+     * Право на изменение проверяется в том же запросе: администратор обновляет любые задачи,
+     * остальные пользователи только свои. Несуществующие и чужие задачи пропускаются.
+     *
+     * @param dto идентификаторы задач и новые значения полей
+     * @return количество запрошенных и обновленных задач
+     * @throws PerformerIdNotFoundException если исполнитель не найден
+     */
+    @Transactional
+    public TaskBulkUpdateResultDto updateTasks(TaskBulkUpdateDto dto) {
+        if (dto.getPerformerId() != null && !userRepository.existsById(dto.getPerformerId())) {
+            throw new PerformerIdNotFoundException(dto.getPerformerId());
+        }
+
+        Set<Long> ids = new HashSet<>(dto.getIds());
+        Long ownerId = SecurityUtils.isCurrentUserAdmin() ? null : SecurityUtils.getCurrentUserId();
+        int updated = taskRepository.bulkUpdate(ids, dto.getStatus(), dto.getPriority(), dto.getPerformerId(), ownerId);
+        entityCacheInvalidator.announce(Task.class, null);
+        ids.forEach(taskResponseCache::evict);
+        taskChangeHistory.forget(ids);
+        return new TaskBulkUpdateResultDto(ids.size(), updated);
     }
 
     /**
@@ -69,11 +218,26 @@ public class TaskService {
      * @return DTO с информацией о задаче
      * @throws TaskIdNotFoundException если задача не найдена
      */
+    @Transactional(readOnly = true)
     public TaskResponseDto findTaskById(Long id) {
         Task task = getTaskByIdOrThrow(id);
         return new TaskResponseDto(task);
     }
 
+    /**
+     * Находит версию и время последнего изменения задачи одним легким запросом, не загружая задачу.
+     * Используется для условных запросов (ETag, If-Modified-Since).
+     *
+     * @param id идентификатор задачи
+     * @return версия и время последнего изменения (или создания) задачи
+     * @throws TaskIdNotFoundException если задача не найдена
+     */
+    @Transactional(readOnly = true)
+    public TaskVersionDto findTaskVersion(Long id) {
+        return taskRepository.findVersionById(id)
+                .orElseThrow(() -> new TaskIdNotFoundException(id));
+    }
+
     /**
      * Находит задачу по точному совпадению названия.
      *
@@ -81,6 +245,7 @@ public class TaskService {
      * @return DTO с информацией о задаче
      * @throws TaskTitleNotFoundException если задача не найдена
      */
+    @Transactional(readOnly = true)
     public TaskResponseDto findTaskByExactTitle(String title) {
         Task task = taskRepository.findTaskByTitle(title)
                 .orElseThrow(() -> new TaskTitleNotFoundException(title));
@@ -95,12 +260,40 @@ public class TaskService {
      * @return список задач в виде страниц
      * @throws TaskTitleNotFoundException если задачи не найдены
      */
+    @Transactional(readOnly = true)
     public Page<TaskResponseDto> findTaskByTitleContaining(String titlePart, Pageable pageable) {
-        Page<Task> tasks = taskRepository.findTaskByTitleContaining(titlePart, pageable);
+        Page<TaskResponseDto> tasks = taskRepository.findTaskByTitleContaining(titlePart, pageable);
         if (tasks.isEmpty()) {
             throw new TaskTitleNotFoundException(titlePart);
         }
-        return convertToDtoList(tasks);
+        return tasks;
+    }
+
+    /**
+     * Ищет задачи по подстроке в названии или описании с ранжированием по релевантности.
+     * Найденные индексом задачи загружаются из базы данных и повторно проверяются,
+     * поэтому удаленные или изменившиеся задачи не попадают в результат.
+     *
+     * @param query строка запроса
+     * @param limit максимальное количество результатов
+     * @return задачи от наиболее к наименее релевантным
+     */
+    @Transactional(readOnly = true)
+    public List<TaskResponseDto> searchTasks(String query, int limit) {
+        List<Long> ids = taskSearchIndex.search(query, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, TaskResponseDto> tasks = taskRepository.findTaskResponsesByIdIn(ids).stream()
+                .collect(Collectors.toMap(TaskResponseDto::getId, Function.identity()));
+        String normalizedQuery = query.toLowerCase(Locale.ROOT);
+        return ids.stream()
+                .map(tasks::get)
+                .filter(Objects::nonNull)
+                .filter(task -> containsIgnoreCase(task.getTitle(), normalizedQuery)
+                        || containsIgnoreCase(task.getDescription(), normalizedQuery))
+                .toList();
     }
 
     /**
@@ -109,48 +302,77 @@ public class TaskService {
      * @param pageable объект для пагинации
      * @return список всех задач в виде страниц
      */
+    @Transactional(readOnly = true)
     public Page<TaskResponseDto> findAllTasks(Pageable pageable) {
-        return convertToDtoList(taskRepository.findAll(pageable));
+        return taskRepository.findAllTaskResponses(pageable);
+    }
+
+    /**
+     * Получает порцию задач после курсора, от новых к старым.
+     *
+     * @param after курсор последней полученной задачи или null для первой порции
+     * @param size размер порции
+     * @return порция задач с курсором следующей порции
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<TaskResponseDto> findAllTasksAfter(String after, int size) {
+        CursorCodec.Cursor cursor = CursorCodec.decode(after);
+        return toCursorPage(taskRepository.findTaskResponsesAfter(
+                cursor.createdAt(), cursor.id(), PageRequest.of(0, size)));
     }
 
     /**
      * Обновляет задачу по ее идентификатору.
      * Обновляются только те поля, которые указаны в DTO и не являются пустыми.
+     * Изменения сразу записываются в базу данных для проверки уникальности заголовка и версии.
+     * Если передана ожидаемая версия (из If-Match), а задача с тех пор изменилась, обновление применяется
+     * к текущей версии только когда промежуточные версии не меняли те же поля (см. {@link TaskChangeHistory}).
      *
      * @param id идентификатор задачи
      * @param dto объект с обновленными данными задачи
+     * @param expectedVersion ожидаемая версия задачи или null для безусловного обновления
      * @return DTO с информацией об обновленной задаче
+     * @throws TaskVersionMismatchException если версия устарела и изменения нельзя слить
      */
     @Transactional
-    public TaskResponseDto updateTaskById(Long id, TaskUpdateDto dto) {
+    public TaskResponseDto updateTaskById(Long id, TaskUpdateDto dto, Long expectedVersion) {
         Task task = getTaskByIdOrThrow(id);
+        long version = task.getVersion();
+        Set<String> fields = changedFields(dto);
+        checkVersion(task, expectedVersion, fields);
 
-        if (dto.getTitle() != null && !dto.getTitle().isBlank()) {
+        if (fields.contains(FIELD_TITLE)) {
             task.setTitle(dto.getTitle());
         }
 
-        if (dto.getDescription() != null && !dto.getDescription().isBlank()) {
+        if (fields.contains(FIELD_DESCRIPTION)) {
             task.setDescription(dto.getDescription());
         }
 
-        if (dto.getStatus() != null && !dto.getStatus().isBlank()) {
+        if (fields.contains(FIELD_STATUS)) {
             task.setStatus(dto.getStatus());
         }
 
-        if (dto.getPriority() != null && !dto.getPriority().isBlank()) {
+        if (fields.contains(FIELD_PRIORITY)) {
             task.setPriority(dto.getPriority());
         }
 
-        if (dto.getOwnerId() != null) {
+        if (fields.contains(FIELD_OWNER)) {
             task.setOwner(userRepository.findById(dto.getOwnerId())
                     .orElseThrow(() -> new OwnerIdNotFoundException(dto.getOwnerId())));
         }
 
-        if (dto.getPerformerId() != null) {
+        if (fields.contains(FIELD_PERFORMER)) {
             task.setPerformer(userRepository.findById(dto.getPerformerId())
                     .orElseThrow(() -> new PerformerIdNotFoundException(dto.getPerformerId())));
         }
 
+        flushChanges(task, version, expectedVersion, fields);
+        if (fields.contains(FIELD_TITLE)) {
+            taskTitleRegistry.register(task.getTitle());
+        }
+        taskSearchIndex.index(task.getId(), task.getTitle(), task.getDescription());
+        taskResponseCache.evict(id);
         return new TaskResponseDto(task);
     }
 
@@ -166,6 +388,7 @@ public class TaskService {
             throw new TaskIdNotFoundException(id);
         }
         taskRepository.deleteById(id);
+        forgetDeletedTask(id);
     }
 
     /**
@@ -176,10 +399,22 @@ public class TaskService {
      */
     @Transactional
     public void deleteTaskByTitle(String title) {
-        if (!taskRepository.existsByTitle(title)) {
-            throw new TaskTitleNotFoundException(title);
-        }
+        Long id = taskRepository.findIdByNormalizedTitle(Task.normalizeTitle(title))
+                .orElseThrow(() -> new TaskTitleNotFoundException(title));
         taskRepository.deleteTaskByTitle(title);
+        entityCacheInvalidator.announce(Task.class, id);
+        forgetDeletedTask(id);
+    }
+
+    /**
+     * Удаляет задачу из поискового индекса, кеша ответов и истории изменений.
+     *
+     * @param id идентификатор удаленной задачи
+     */
+    private void forgetDeletedTask(Long id) {
+        taskSearchIndex.remove(id);
+        taskResponseCache.evict(id);
+        taskChangeHistory.forget(List.of(id));
     }
 
     /**
@@ -192,7 +427,10 @@ public class TaskService {
     @Transactional
     public TaskResponseDto updateTaskStatusById(Long id, String status) {
         Task task = getTaskByIdOrThrow(id);
+        long version = task.getVersion();
         task.setStatus(status);
+        flushChanges(task, version, null, Set.of(FIELD_STATUS));
+        taskResponseCache.evict(id);
         return new TaskResponseDto(task);
     }
 
@@ -206,7 +444,10 @@ public class TaskService {
     @Transactional
     public TaskResponseDto updateTaskPriorityById(Long id, String priority) {
         Task task = getTaskByIdOrThrow(id);
+        long version = task.getVersion();
         task.setPriority(priority);
+        flushChanges(task, version, null, Set.of(FIELD_PRIORITY));
+        taskResponseCache.evict(id);
         return new TaskResponseDto(task);
     }
 
@@ -221,9 +462,12 @@ public class TaskService {
     @Transactional
     public TaskResponseDto updateTaskPerformer(Long id, Long performerId) {
         Task task = getTaskByIdOrThrow(id);
+        long version = task.getVersion();
         AppUser performer = userRepository.findById(performerId)
                 .orElseThrow(() -> new PerformerIdNotFoundException(performerId));
         task.setPerformer(performer);
+        flushChanges(task, version, null, Set.of(FIELD_PERFORMER));
+        taskResponseCache.evict(id);
         return new TaskResponseDto(task);
     }
 
@@ -234,8 +478,24 @@ public class TaskService {
      * @param pageable объект для пагинации
      * @return список задач в виде страниц
      */
+    @Transactional(readOnly = true)
     public Page<TaskResponseDto> findTasksByStatus(String status, Pageable pageable) {
-        return convertToDtoList(taskRepository.findTasksByStatus(status, pageable));
+        return taskRepository.findTasksByStatus(status, pageable);
+    }
+
+    /**
+     * Получает порцию задач с указанным статусом после курсора, от новых к старым.
+     *
+     * @param status статус задачи для поиска
+     * @param after курсор последней полученной задачи или null для первой порции
+     * @param size размер порции
+     * @return порция задач с курсором следующей порции
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<TaskResponseDto> findTasksByStatusAfter(String status, String after, int size) {
+        CursorCodec.Cursor cursor = CursorCodec.decode(after);
+        return toCursorPage(taskRepository.findTaskResponsesByStatusAfter(
+                status, cursor.createdAt(), cursor.id(), PageRequest.of(0, size)));
     }
 
     /**
@@ -245,8 +505,24 @@ public class TaskService {
      * @param pageable объект для пагинации
      * @return список задач в виде страниц
      */
+    @Transactional(readOnly = true)
     public Page<TaskResponseDto> findTasksByPriority(String priority, Pageable pageable) {
-        return convertToDtoList(taskRepository.findTasksByPriority(priority, pageable));
+        return taskRepository.findTasksByPriority(priority, pageable);
+    }
+
+    /**
+     * Получает порцию задач с указанным приоритетом после курсора, от новых к старым.
+     *
+     * @param priority приоритет задачи для поиска
+     * @param after курсор последней полученной задачи или null для первой порции
+     * @param size размер порции
+     * @return порция задач с курсором следующей порции
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<TaskResponseDto> findTasksByPriorityAfter(String priority, String after, int size) {
+        CursorCodec.Cursor cursor = CursorCodec.decode(after);
+        return toCursorPage(taskRepository.findTaskResponsesByPriorityAfter(
+                priority, cursor.createdAt(), cursor.id(), PageRequest.of(0, size)));
     }
 
     /**
@@ -256,19 +532,102 @@ public class TaskService {
      * @param pageable объект для пагинации
      * @return список комментариев в виде страниц
      */
+    @Transactional(readOnly = true)
     public Page<CommentResponseDto> findCommentsByTaskId(Long taskId, Pageable pageable) {
         getTaskByIdOrThrow(taskId);
         return commentService.getCommentsForTask(taskId, pageable);
     }
 
     /**
-     * Преобразует страницу задач в страницу DTO.
+     * Получает порцию комментариев к задаче после курсора, от новых к старым.
+     *
+     * @param taskId идентификатор задачи
+     * @param after курсор последнего полученного комментария или null для первой порции
+     * @param size размер порции
+     * @return порция комментариев с курсором следующей порции
+     * @throws TaskIdNotFoundException если задача не найдена
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<CommentResponseDto> findCommentsByTaskIdAfter(Long taskId, String after, int size) {
+        if (!taskRepository.existsById(taskId)) {
+            throw new TaskIdNotFoundException(taskId);
+        }
+        return commentService.getCommentsForTaskAfter(taskId, after, size);
+    }
+
+    /**
+     * Создает валидатор для пакета задач, в котором уникальность заголовков проверяется
+     * по занятым заголовкам, загруженным одним запросом, а не отдельным запросом на каждый элемент.
+     * В запрос попадают только заголовки, которые могут быть заняты по {@link TaskTitleRegistry}.
+     *
+     * @param dtos элементы пакета
+     * @return валидатор пакета
+     */
+    private Validator bulkValidator(List<TaskCreateDto> dtos) {
+        Set<String> candidates = new HashSet<>();
+        for (TaskCreateDto dto : dtos) {
+            if (dto != null && dto.getTitle() != null && !dto.getTitle().isBlank()
+                    && taskTitleRegistry.mightExist(dto.getTitle())) {
+                candidates.add(Task.normalizeTitle(dto.getTitle()));
+            }
+        }
+        Set<String> existing = candidates.isEmpty()
+                ? Set.of()
+                : taskRepository.findExistingNormalizedTitles(candidates);
+        return validatorFactory.unwrap(HibernateValidatorFactory.class)
+                .usingContext()
+                .constraintValidatorPayload(new UniqueTaskTitleValidator.ExistingTitles(existing))
+                .getValidator();
+    }
+
+    /**
+     * Проверяет элемент пакетного создания: ограничения DTO, уникальность названия
+     * внутри пакета и существование исполнителя.
+     *
+     * @param validator валидатор пакета
+     * @param dto элемент пакета
+     * @param performers исполнители, найденные по идентификаторам из пакета
+     * @param titles названия уже принятых элементов пакета
+     * @return список ошибок, пустой для корректного элемента
+     */
+    private List<String> validateBulkItem(Validator validator, TaskCreateDto dto, Map<Long, AppUser> performers,
+                                          Set<String> titles) {
+        if (dto == null) {
+            return List.of("Элемент не должен быть пустым");
+        }
+
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<TaskCreateDto> violation : validator.validate(dto)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (dto.getPerformerId() != null && !performers.containsKey(dto.getPerformerId())) {
+            errors.add("performerId: Исполнитель с id " + dto.getPerformerId() + " не найден");
+        }
+        if (errors.isEmpty() && !titles.add(Task.normalizeTitle(dto.getTitle()))) {
+            errors.add("title: Задача с таким названием уже есть в пакете");
+        }
+        return errors;
+    }
+
+    /**
+     * Проверяет вхождение строки без учета регистра.
      *
-     * @param tasks страница задач
-     * @return страница DTO задач
+     * @param text проверяемый текст, может быть null
+     * @param normalizedQuery строка запроса в нижнем регистре
+     * @return true, если текст содержит строку
      */
-    private Page<TaskResponseDto> convertToDtoList(Page<Task> tasks) {
-        return tasks.map(TaskResponseDto::new);
+    private static boolean containsIgnoreCase(String text, String normalizedQuery) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(normalizedQuery);
+    }
+
+    /**
+     * Формирует ответ keyset-пагинации из порции задач.
+     *
+     * @param tasks порция задач
+     * @return порция задач с курсором следующей порции
+     */
+    private CursorPageDto<TaskResponseDto> toCursorPage(Slice<TaskResponseDto> tasks) {
+        return new CursorPageDto<>(tasks, TaskResponseDto::getCreatedAt, TaskResponseDto::getId);
     }
 
     /**
@@ -285,26 +644,71 @@ public class TaskService {
     }
 
     /**
-     * Проверяет, является ли пользователь владельцем задачи.
+     * Определяет поля задачи, которые меняет DTO: непустые строки и указанные идентификаторы.
      *
-     * @param taskId идентификатор задачи
-     * @param userEmail email пользователя
-     * @return true, если пользователь является владельцем задачи, иначе false
+     * @param dto объект с обновленными данными задачи
+     * @return имена изменяемых полей
      */
-    public boolean isOwner(Long taskId, String userEmail) {
-        Task task = taskRepository.findById(taskId).orElse(null);
-        return task != null && task.getOwner().getEmail().equals(userEmail);
+    private static Set<String> changedFields(TaskUpdateDto dto) {
+        Set<String> fields = new HashSet<>();
+        if (dto.getTitle() != null && !dto.getTitle().isBlank()) {
+            fields.add(FIELD_TITLE);
+        }
+        if (dto.getDescription() != null && !dto.getDescription().isBlank()) {
+            fields.add(FIELD_DESCRIPTION);
+        }
+        if (dto.getStatus() != null && !dto.getStatus().isBlank()) {
+            fields.add(FIELD_STATUS);
+        }
+        if (dto.getPriority() != null && !dto.getPriority().isBlank()) {
+            fields.add(FIELD_PRIORITY);
+        }
+        if (dto.getOwnerId() != null) {
+            fields.add(FIELD_OWNER);
+        }
+        if (dto.getPerformerId() != null) {
+            fields.add(FIELD_PERFORMER);
+        }
+        return fields;
     }
 
     /**
-     * Проверяет, является ли пользователь исполнителем задачи.
+     * Проверяет ожидаемую клиентом версию задачи.
+     * Устаревшая версия допускается, если изменения промежуточных версий не пересекаются с изменяемыми полями.
      *
-     * @param taskId идентификатор задачи
-     * @param userEmail email пользователя
-     * @return true, если пользователь является исполнителем задачи, иначе false
+     * @param task загруженная задача
+     * @param expectedVersion ожидаемая версия или null для безусловного обновления
+     * @param fields изменяемые поля
+     * @throws TaskVersionMismatchException если версия устарела и изменения нельзя слить
      */
-    public boolean isPerformer(Long taskId, String userEmail) {
-        Task task = taskRepository.findById(taskId).orElse(null);
-        return task != null && task.getPerformer().getEmail().equals(userEmail);
+    private void checkVersion(Task task, Long expectedVersion, Set<String> fields) {
+        if (expectedVersion != null && task.getVersion() != expectedVersion
+                && !taskChangeHistory.canMerge(task.getId(), expectedVersion, task.getVersion(), fields)) {
+            throw new TaskVersionMismatchException(task.getId(), expectedVersion);
+        }
+    }
+
+    /**
+     * Записывает изменения задачи в базу данных и запоминает поля, измененные новой версией.
+     * Если задачу успели изменить между чтением и записью, условное обновление отклоняется
+     * как устаревшее, а безусловное — как конфликт оптимистичной блокировки.
+     *
+     * @param task измененная задача
+     * @param version версия задачи до изменения
+     * @param expectedVersion ожидаемая версия или null для безусловного обновления
+     * @param fields изменяемые поля
+     */
+    private void flushChanges(Task task, long version, Long expectedVersion, Set<String> fields) {
+        try {
+            taskRepository.flush();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            throw new TaskVersionMismatchException(task.getId(), expectedVersion);
+        }
+        if (task.getVersion() != version) {
+            taskChangeHistory.record(task.getId(), task.getVersion(), fields);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,96 @@
+package com.tema_kuznetsov.task_manager.services;
+
+import com.tema_kuznetsov.task_manager.models.Task;
+import com.tema_kuznetsov.task_manager.repositories.TaskRepository;
+import com.tema_kuznetsov.task_manager.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Реестр занятых заголовков задач на основе фильтра Блума.
+ * Позволяет не обращаться к базе данных при проверке уникальности заголовка,
+ * если такой заголовок точно не встречался. Положительный ответ фильтра перепроверяется
+ * по уникальному индексу, а гонки между параллельными созданиями отсекает само ограничение
+ * {@link Task#TITLE_UNIQUE_CONSTRAINT}.
+ */
+@Component
+public class TaskTitleRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskTitleRegistry.class);
+
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final BloomFilter filter;
+    private volatile boolean ready;
+
+    /**
+     * Конструктор, создающий фильтр заданного размера.
+     *
+     * @param taskRepository репозиторий задач, из которого фильтр заполняется при старте
+     * @param transactionManager менеджер транзакций для чтения заголовков потоком
+     * @param expectedTitles ожидаемое количество задач
+     * @param falsePositiveRate допустимая доля лишних обращений к базе данных
+     */
+    public TaskTitleRegistry(TaskRepository taskRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${task.title-filter.expected-titles:1000000}") long expectedTitles,
+                             @Value("${task.title-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.taskRepository = taskRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.filter = new BloomFilter(expectedTitles, falsePositiveRate);
+    }
+
+    /**
+     * Заполняет фильтр заголовками существующих задач после старта приложения.
+     * Пока фильтр не заполнен, все проверки уходят в базу данных; ошибка чтения не мешает старту.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        AtomicLong count = new AtomicLong();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> titles = taskRepository.streamAllNormalizedTitles()) {
+                    titles.forEach(title -> {
+                        filter.put(title);
+                        count.incrementAndGet();
+                    });
+                }
+            });
+            ready = true;
+            logger.info("Фильтр заголовков задач заполнен: {} заголовков", count.get());
+        } catch (RuntimeException e) {
+            logger.warn("Не удалось заполнить фильтр заголовков задач: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Проверяет, может ли заголовок быть уже занят.
+     *
+     * @param title заголовок задачи
+     * @return false, если заголовок точно свободен; true, если его нужно проверить по базе данных
+     */
+    public boolean mightExist(String title) {
+        return !ready || filter.mightContain(Task.normalizeTitle(title));
+    }
+
+    /**
+     * Отмечает заголовок как занятый.
+     *
+     * @param title заголовок задачи
+     */
+    public void register(String title) {
+        if (title != null) {
+            filter.put(Task.normalizeTitle(title));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.tema_kuznetsov.task_manager.services;
+
+import com.tema_kuznetsov.task_manager.models.AppUser;
+import com.tema_kuznetsov.task_manager.repositories.UserRepository;
+import com.tema_kuznetsov.task_manager.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Реестр занятых логинов и email пользователей на основе фильтров Блума.
+ * Позволяет регистрировать пользователя одной вставкой: если логин и email точно свободны,
+ * проверки уникальности не обращаются к базе данных, а редкие гонки отсекают ограничения
+ * {@link AppUser#LOGIN_UNIQUE_CONSTRAINT} и {@link AppUser#EMAIL_UNIQUE_CONSTRAINT}.
+ * Возможно занятые значения перепроверяются по базе данных.
+ */
+@Component
+public class UserIdentityRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentityRegistry.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final BloomFilter logins;
+    private final BloomFilter emails;
+    private volatile boolean ready;
+
+    /**
+     * Конструктор, создающий фильтры заданного размера.
+     *
+     * @param userRepository репозиторий пользователей, из которого фильтры заполняются при старте
+     * @param transactionManager менеджер транзакций для чтения значений потоком
+     * @param expectedUsers ожидаемое количество пользователей
+     * @param falsePositiveRate допустимая доля лишних обращений к базе данных
+     */
+    public UserIdentityRegistry(UserRepository userRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${user.identity-filter.expected-users:1000000}") long expectedUsers,
+                                @Value("${user.identity-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.logins = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.emails = new BloomFilter(expectedUsers, falsePositiveRate);
+    }
+
+    /**
+     * Заполняет фильтры логинами и email существующих пользователей после старта приложения.
+     * Пока фильтры не заполнены, все проверки уходят в базу данных; ошибка чтения не мешает старту.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        AtomicLong count = new AtomicLong();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> values = userRepository.streamAllLogins()) {
+                    values.forEach(logins::put);
+                }
+                try (Stream<String> values = userRepository.streamAllEmails()) {
+                    values.forEach(email -> {
+                        emails.put(email);
+                        count.incrementAndGet();
+                    });
+                }
+            });
+            ready = true;
+            logger.info("Фильтры логинов и email заполнены: {} пользователей", count.get());
+        } catch (RuntimeException e) {
+            logger.warn("Не удалось заполнить фильтры логинов и email: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Проверяет, может ли логин быть уже занят.
+     *
+     * @param login логин пользователя
+     * @return false, если логин точно свободен; true, если его нужно проверить по базе данных
+     */
+    public boolean mightContainLogin(String login) {
+        return !ready || logins.mightContain(login);
+    }
+
+    /**
+     * Проверяет, может ли email быть уже занят.
+     *
+     * @param email email пользователя
+     * @return false, если email точно свободен; true, если его нужно проверить по базе данных
+     */
+    public boolean mightContainEmail(String email) {
+        return !ready || emails.mightContain(email);
+    }
+
+    /**
+     * Отмечает логин и email пользователя как занятые.
+     *
+     * @param user пользователь
+     */
+    public void register(AppUser user) {
+        if (user.getLogin() != null) {
+            logins.put(user.getLogin());
+        }
+        if (user.getEmail() != null) {
+            emails.put(user.getEmail());
+        }
+    }
+}
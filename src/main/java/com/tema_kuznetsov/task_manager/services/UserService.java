@@ -11,7 +11,10 @@ import com.tema_kuznetsov.task_manager.exceptions.userException.loginException.U
 import com.tema_kuznetsov.task_manager.exceptions.userException.roleException.SelfRoleChangeException;
 import com.tema_kuznetsov.task_manager.models.AppUser;
 import com.tema_kuznetsov.task_manager.repositories.UserRepository;
+import com.tema_kuznetsov.task_manager.security.PrincipalCache;
+import com.tema_kuznetsov.task_manager.security.TokenVersionRegistry;
 import com.tema_kuznetsov.task_manager.util.SecurityUtils;
+import com.tema_kuznetsov.task_manager.util.cache.EntityCacheInvalidator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -19,6 +22,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.regex.Pattern;
 
 /**
@@ -31,6 +35,11 @@ public class UserService {
     private final UserRepository userRepository;
     private final CommentService commentService;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final UserIdentityRegistry userIdentityRegistry;
+    private final EntityCacheInvalidator entityCacheInvalidator;
+    private final TaskResponseCache taskResponseCache;
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,6}$");
 
     /**
@@ -40,11 +49,26 @@ public class UserService {
      * @return DTO с информацией о пользователе
      * @throws UserIdNotFoundException если пользователь не найден
      */
+    @Transactional(readOnly = true)
     public UserResponseDto findUserById(Long id) {
         AppUser appUser = getUserByIdOrThrow(id);
         return new UserResponseDto(appUser);
     }
 
+    /**
+     * Находит время последнего изменения пользователя одним легким запросом, не загружая пользователя.
+     * Используется для условных запросов (ETag, If-Modified-Since).
+     *
+     * @param id идентификатор пользователя
+     * @return время последнего изменения (или создания) пользователя
+     * @throws UserIdNotFoundException если пользователь не найден
+     */
+    @Transactional(readOnly = true)
+    public LocalDateTime findUserLastModified(Long id) {
+        return userRepository.findLastModifiedById(id)
+                .orElseThrow(() -> new UserIdNotFoundException(id));
+    }
+
     /**
      * Находит пользователя по точному совпадению логина.
      *
@@ -52,6 +76,7 @@ public class UserService {
      * @return DTO с информацией о пользователе
      * @throws UserLoginNotFoundException если пользователь не найден
      */
+    @Transactional(readOnly = true)
     public UserResponseDto findUserByExactLogin(String login) {
         AppUser appUser = userRepository.findUserByLogin(login)
                 .orElseThrow(() -> new UserLoginNotFoundException(login));
@@ -65,6 +90,7 @@ public class UserService {
      * @return DTO с информацией о пользователе
      * @throws UserEmailNotFoundException если пользователь не найден
      */
+    @Transactional(readOnly = true)
     public UserResponseDto findUserByEmail(String email) {
         AppUser appUser = userRepository.findUserByEmail(email)
                 .orElseThrow(() -> new UserEmailNotFoundException(email));
@@ -78,6 +104,7 @@ public class UserService {
      * @param pageable объект для пагинации
      * @return список пользователей в виде страниц
      */
+    @Transactional(readOnly = true)
     public Page<UserResponseDto> findUserByLoginContaining(String loginPart, Pageable pageable) {
         Page<AppUser> appUsers = userRepository.findUserByLoginContaining(loginPart, pageable);
         return convertToDtoList(appUsers);
@@ -89,6 +116,7 @@ public class UserService {
      * @param pageable объект для пагинации
      * @return список всех пользователей в виде страниц
      */
+    @Transactional(readOnly = true)
     public Page<UserResponseDto> findAllUsers(Pageable pageable) {
         return convertToDtoList(userRepository.findAll(pageable));
     }
@@ -96,6 +124,8 @@ public class UserService {
     /**
      * Обновляет данные пользователя по его идентификатору.
      * Обновляются только те поля, которые указаны в DTO и не являются пустыми.
+     * Изменения сразу записываются в базу данных, чтобы занятый логин или email
+     * был обнаружен уникальным ограничением внутри метода.
      *
      * @param id идентификатор пользователя
      * @param dto объект с обновленными данными пользователя
@@ -105,6 +135,7 @@ public class UserService {
     @Transactional
     public UserResponseDto updateUserById(Long id, UserUpdateDto dto) {
         AppUser appUser = getUserByIdOrThrow(id);
+        principalCache.evict(appUser.getEmail());
 
         String email = dto.getEmail();
         if (email != null && !email.isBlank()) {
@@ -113,17 +144,29 @@ public class UserService {
             }
         }
 
+        boolean changed = false;
+
         if (dto.getLogin() != null && !dto.getLogin().isBlank()) {
             appUser.setLogin(dto.getLogin());
+            changed = true;
         }
 
         if (dto.getEmail() != null && !dto.getEmail().isBlank()) {
             appUser.setEmail(dto.getEmail());
+            principalCache.evict(dto.getEmail());
+            changed = true;
         }
 
         if (dto.getPassword() != null && !dto.getPassword().isBlank()) {
             String encodedPassword = passwordEncoder.encode(dto.getPassword());
             appUser.setPassword(encodedPassword);
+            changed = true;
+        }
+
+        if (changed) {
+            revokeTokens(appUser);
+            userRepository.flush();
+            userIdentityRegistry.register(appUser);
         }
 
         return new UserResponseDto(appUser);
@@ -142,6 +185,8 @@ public class UserService {
 
         String encodedPassword = passwordEncoder.encode(password);
         appUser.setPassword(encodedPassword);
+        principalCache.evict(appUser.getEmail());
+        revokeTokens(appUser);
 
         return new UserResponseDto(appUser);
     }
@@ -164,6 +209,8 @@ public class UserService {
         }
 
         appUser.setRole(role);
+        principalCache.evict(appUser.getEmail());
+        revokeTokens(appUser);
         return new UserResponseDto(appUser);
     }
 
@@ -177,16 +224,18 @@ public class UserService {
     @Transactional
     public void deleteUserByLogin(String login) {
         Long currentUserId = SecurityUtils.getCurrentUserId();
-        if (!userRepository.existsByLogin(login)) {
-            throw new UserLoginNotFoundException(login);
-        }
+        AppUser target = userRepository.findUserByLogin(login)
+                .orElseThrow(() -> new UserLoginNotFoundException(login));
 
-        AppUser user = getUserByIdOrThrow(currentUserId);
-        if (login.equals(user.getLogin())) {
+        if (currentUserId.equals(target.getId())) {
             throw new SelfDeletionException();
         }
 
         userRepository.deleteUserByLogin(login);
+        entityCacheInvalidator.announce(AppUser.class, target.getId());
+        taskResponseCache.evictAll();
+        principalCache.evict(target.getEmail());
+        tokenVersionRegistry.evict(target.getId());
     }
 
     /**
@@ -197,9 +246,7 @@ public class UserService {
      * @throws SelfDeletionException если пользователь пытается удалить самого себя
      */
     public void deleteUserById(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new UserIdNotFoundException(id);
-        }
+        AppUser target = getUserByIdOrThrow(id);
 
         Long currentUserId = SecurityUtils.getCurrentUserId();
         if (currentUserId.equals(id)) {
@@ -207,6 +254,9 @@ public class UserService {
         }
 
         userRepository.deleteById(id);
+        taskResponseCache.evictAll();
+        principalCache.evict(target.getEmail());
+        tokenVersionRegistry.evict(id);
     }
 
     /**
@@ -216,6 +266,7 @@ public class UserService {
      * @param pageable объект для пагинации
      * @return список пользователей в виде страниц
      */
+    @Transactional(readOnly = true)
     public Page<UserResponseDto> findUsersByRole(String role, Pageable pageable) {
         return convertToDtoList(userRepository.findUsersByRole(role, pageable));
     }
@@ -227,6 +278,7 @@ public class UserService {
      * @param pageable объект для пагинации
      * @return список комментариев в виде страниц
      */
+    @Transactional(readOnly = true)
     public Page<CommentResponseDto> findCommentsByUserId(Long userId, Pageable pageable) {
         AppUser appUser = getUserByIdOrThrow(userId);
         return commentService.getCommentsForUser(userId, pageable);
@@ -242,6 +294,17 @@ public class UserService {
         return appUsers.map(UserResponseDto::new);
     }
 
+    /**
+     * Увеличивает версию токенов пользователя, делая недействительными ранее выпущенные
+     * stateless-токены, и сбрасывает закешированную версию.
+     *
+     * @param appUser пользователь, данные которого изменились
+     */
+    private void revokeTokens(AppUser appUser) {
+        appUser.setTokenVersion(appUser.getTokenVersion() + 1);
+        tokenVersionRegistry.evict(appUser.getId());
+    }
+
     /**
      * Находит пользователя по его идентификатору.
      * Если пользователь не найден, выбрасывает исключение {@link UserIdNotFoundException}.
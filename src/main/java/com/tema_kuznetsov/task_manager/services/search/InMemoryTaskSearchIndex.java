@@ -0,0 +1,236 @@
+package com.tema_kuznetsov.task_manager.services.search;
+
+import com.tema_kuznetsov.task_manager.repositories.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Переносимый триграммный индекс задач в памяти процесса.
+ * Используется вместо {@link PostgresTaskSearchIndex} там, где нет PostgreSQL (например, в тестах на H2).
+ * Задачи индексируются сразу при сохранении, чтобы транзакция видела свои изменения в поиске;
+ * найденные задачи повторно проверяются по базе данных, поэтому незафиксированные записи другим
+ * транзакциям не видны. При откате транзакции индекс возвращается к прежней версии задачи,
+ * если ее с тех пор никто не переиндексировал; иначе откаченное изменение названия или описания
+ * оставило бы задачу ненаходимой по прежнему тексту.
+ * Ранжирование повторяет {@code word_similarity} из {@code pg_trgm}: совпадение в названии
+ * весит вдвое больше совпадения в описании.
+ */
+@Component
+@ConditionalOnProperty(name = "task.search.engine", havingValue = "memory")
+public class InMemoryTaskSearchIndex implements TaskSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryTaskSearchIndex.class);
+
+    private final TaskRepository taskRepository;
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор для инициализации индекса с репозиторием задач.
+     *
+     * @param taskRepository репозиторий задач, из которого индекс заполняется при старте
+     */
+    public InMemoryTaskSearchIndex(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Заполняет индекс существующими задачами после старта приложения.
+     * Ошибка чтения не мешает старту: индекс продолжит заполняться по мере сохранения задач.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            taskRepository.findAll().forEach(task -> index(task.getId(), task.getTitle(), task.getDescription()));
+            logger.info("Поисковый индекс задач заполнен: {} задач", documents.size());
+        } catch (RuntimeException e) {
+            logger.warn("Не удалось заполнить поисковый индекс задач: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void index(Long id, String title, String description) {
+        Document document = new Document(normalize(title), normalize(description));
+        undoOnRollback(id, put(id, document), document);
+    }
+
+    @Override
+    public void remove(Long id) {
+        undoOnRollback(id, put(id, null), null);
+    }
+
+    /**
+     * Регистрирует откат изменения индекса вместе с транзакцией: прежняя версия задачи восстанавливается,
+     * если в индексе все еще версия этой транзакции.
+     *
+     * @param id идентификатор задачи
+     * @param previous версия задачи до изменения или null
+     * @param written записанная версия задачи или null, если задача удалена
+     */
+    private void undoOnRollback(Long id, Document previous, Document written) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    restore(id, previous, written);
+                }
+            }
+        });
+    }
+
+    private synchronized void restore(Long id, Document previous, Document written) {
+        if (documents.get(id) == written) {
+            put(id, previous);
+        }
+    }
+
+    /**
+     * Заменяет версию задачи в индексе.
+     *
+     * @param id идентификатор задачи
+     * @param document новая версия задачи или null для удаления
+     * @return прежняя версия задачи или null
+     */
+    private synchronized Document put(Long id, Document document) {
+        Document previous = document != null ? documents.put(id, document) : documents.remove(id);
+        if (previous != null) {
+            for (String trigram : previous.trigrams()) {
+                Set<Long> ids = postings.get(trigram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        postings.remove(trigram);
+                    }
+                }
+            }
+        }
+        if (document != null) {
+            for (String trigram : document.trigrams()) {
+                postings.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+        return previous;
+    }
+
+    @Override
+    public List<Long> search(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> queryTrigrams = trigrams(normalizedQuery, false);
+        Set<String> paddedQueryTrigrams = trigrams(normalizedQuery, true);
+
+        Map<Long, Double> ranks = new HashMap<>();
+        for (Long id : candidates(queryTrigrams)) {
+            Document document = documents.get(id);
+            if (document == null || !document.contains(normalizedQuery)) {
+                continue;
+            }
+            double rank = Math.max(
+                    wordSimilarity(paddedQueryTrigrams, document.title()),
+                    wordSimilarity(paddedQueryTrigrams, document.description()) * 0.5);
+            ranks.put(id, rank);
+        }
+
+        return ranks.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Отбирает задачи, содержащие все триграммы запроса.
+     * Для запросов короче трех символов триграмм нет, и проверяются все задачи.
+     */
+    private Collection<Long> candidates(Set<String> queryTrigrams) {
+        if (queryTrigrams.isEmpty()) {
+            return new ArrayList<>(documents.keySet());
+        }
+        Set<Long> result = null;
+        for (String trigram : queryTrigrams) {
+            Set<Long> ids = postings.getOrDefault(trigram, Set.of());
+            if (result == null) {
+                result = new HashSet<>(ids);
+            } else {
+                result.retainAll(ids);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Доля триграмм запроса, найденных в тексте.
+     */
+    private static double wordSimilarity(Set<String> queryTrigrams, String text) {
+        if (text.isEmpty()) {
+            return 0;
+        }
+        Set<String> textTrigrams = trigrams(text, true);
+        long matched = queryTrigrams.stream().filter(textTrigrams::contains).count();
+        return (double) matched / queryTrigrams.size();
+    }
+
+    /**
+     * Разбивает текст на триграммы. С дополнением каждое слово обрамляется пробелами,
+     * как в {@code pg_trgm}; без дополнения берутся триграммы строки целиком,
+     * которые обязаны присутствовать в любом тексте, содержащем эту строку.
+     */
+    private static Set<String> trigrams(String text, boolean padded) {
+        Set<String> result = new HashSet<>();
+        if (padded) {
+            for (String word : text.split("\\s+")) {
+                if (!word.isEmpty()) {
+                    addTrigrams("  " + word + " ", result);
+                }
+            }
+        } else {
+            addTrigrams(text, result);
+        }
+        return result;
+    }
+
+    private static void addTrigrams(String text, Set<String> result) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            result.add(text.substring(i, i + 3));
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * Проиндексированная задача: нормализованные название и описание.
+     */
+    private record Document(String title, String description) {
+
+        boolean contains(String query) {
+            return title.contains(query) || description.contains(query);
+        }
+
+        Set<String> trigrams() {
+            Set<String> result = InMemoryTaskSearchIndex.trigrams(title, false);
+            result.addAll(InMemoryTaskSearchIndex.trigrams(description, false));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.tema_kuznetsov.task_manager.services.search;
+
+import com.tema_kuznetsov.task_manager.repositories.TaskRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Поисковый индекс задач на основе триграммных GIN-индексов PostgreSQL ({@code pg_trgm}).
+ * Индексы поддерживаются самой базой данных, поэтому изменения задач дополнительно не индексируются.
+ */
+@Component
+@ConditionalOnProperty(name = "task.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresTaskSearchIndex implements TaskSearchIndex {
+
+    private final TaskRepository taskRepository;
+
+    /**
+     * Конструктор для инициализации индекса с репозиторием задач.
+     *
+     * @param taskRepository репозиторий задач
+     */
+    public PostgresTaskSearchIndex(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Ничего не делает: триграммные GIN-индексы по {@code tasks.title} и {@code tasks.description}
+     * обновляются самой базой данных в той же транзакции, что и задача, поэтому поиск сразу видит
+     * зафиксированные изменения, а откаченные не оставляют следов.
+     */
+    @Override
+    public void index(Long id, String title, String description) {
+    }
+
+    /**
+     * Ничего не делает: строка удаленной задачи исчезает из GIN-индексов вместе с ней.
+     */
+    @Override
+    public void remove(Long id) {
+    }
+
+    @Override
+    public List<Long> search(String query, int limit) {
+        return taskRepository.searchRankedIds(query, "%" + escapeLike(query) + "%", limit);
+    }
+
+    /**
+     * Экранирует спецсимволы шаблона LIKE, чтобы запрос искался как обычная подстрока.
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
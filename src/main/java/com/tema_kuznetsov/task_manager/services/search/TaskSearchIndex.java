@@ -0,0 +1,36 @@
+package com.tema_kuznetsov.task_manager.services.search;
+
+import java.util.List;
+
+/**
+ * Поисковый индекс задач по названию и описанию.
+ * Возвращает идентификаторы задач, упорядоченные по релевантности; загрузка и проверка
+ * актуальности найденных задач выполняется в {@link com.tema_kuznetsov.task_manager.services.TaskService}.
+ */
+public interface TaskSearchIndex {
+
+    /**
+     * Добавляет или обновляет задачу в индексе.
+     *
+     * @param id идентификатор задачи
+     * @param title название задачи
+     * @param description описание задачи
+     */
+    void index(Long id, String title, String description);
+
+    /**
+     * Удаляет задачу из индекса.
+     *
+     * @param id идентификатор задачи
+     */
+    void remove(Long id);
+
+    /**
+     * Находит задачи, название или описание которых содержит строку запроса.
+     *
+     * @param query строка запроса
+     * @param limit максимальное количество результатов
+     * @return идентификаторы задач от наиболее к наименее релевантным
+     */
+    List<Long> search(String query, int limit);
+}
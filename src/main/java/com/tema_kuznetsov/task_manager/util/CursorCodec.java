@@ -0,0 +1,64 @@
+package com.tema_kuznetsov.task_manager.util;
+
+import com.tema_kuznetsov.task_manager.exceptions.paginationException.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Утилитарный класс для кодирования курсоров keyset-пагинации.
+ * Курсор указывает на последнюю выданную запись через пару (createdAt, id) и передается
+ * клиенту как непрозрачная base64url-строка.
+ */
+public class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Позиция в ленте, отсортированной по убыванию (createdAt, id).
+     *
+     * @param createdAt дата создания последней выданной записи
+     * @param id идентификатор последней выданной записи
+     */
+    public record Cursor(LocalDateTime createdAt, Long id) {
+
+        /**
+         * Позиция перед первой записью ленты: все реальные записи строго меньше нее.
+         */
+        public static final Cursor START = new Cursor(LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE);
+    }
+
+    /**
+     * Кодирует позицию в курсор.
+     *
+     * @param createdAt дата создания записи
+     * @param id идентификатор записи
+     * @return непрозрачная строка курсора
+     */
+    public static String encode(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Декодирует курсор. Отсутствующий курсор означает начало ленты.
+     *
+     * @param cursor строка курсора или null
+     * @return позиция в ленте
+     * @throws InvalidCursorException если курсор не удается разобрать
+     */
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Cursor.START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.tema_kuznetsov.task_manager.util;
+
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Утилитарный класс для условных запросов (If-None-Match, If-Modified-Since, If-Match).
+ * Строгий ETag отдельного ресурса строится из его типа, идентификатора и версии (или времени последнего
+ * изменения для ресурсов без версии), слабый ETag страницы — из параметров страницы, идентификаторов записей
+ * и максимального времени изменения.
+ */
+public class ETags {
+
+    /**
+     * Политика кэширования ответов с ETag: клиент может хранить ответ, но обязан перепроверять его
+     * условным запросом. Заменяет выставляемый Spring Security по умолчанию no-store.
+     */
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    /**
+     * Строит строгий ETag ресурса без версии по времени его последнего изменения.
+     *
+     * @param type тип ресурса (user)
+     * @param id идентификатор ресурса
+     * @param lastModified время последнего изменения (или создания) ресурса
+     * @return строгий ETag в кавычках
+     */
+    public static String strong(String type, Long id, LocalDateTime lastModified) {
+        return "\"" + type + "-" + id + "-" + toEpochMicros(lastModified) + "\"";
+    }
+
+    /**
+     * Строит строгий ETag версионируемого ресурса. Такой ETag можно вернуть в If-Match
+     * для условного обновления.
+     *
+     * @param type тип ресурса (task, comment)
+     * @param id идентификатор ресурса
+     * @param version версия ресурса
+     * @return строгий ETag в кавычках
+     */
+    public static String strong(String type, Long id, long version) {
+        return "\"" + type + "-" + id + "-v" + version + "\"";
+    }
+
+    /**
+     * Извлекает ожидаемую клиентом версию ресурса из заголовка If-Match.
+     * Слабые ETag и ETag другого ресурса версией не считаются.
+     *
+     * @param ifMatch значение заголовка If-Match или null
+     * @param type тип ресурса
+     * @param id идентификатор ресурса
+     * @return ожидаемая версия; null, если заголовок отсутствует или равен "*";
+     * -1, если ни один ETag из заголовка не относится к ресурсу
+     */
+    public static Long expectedVersion(String ifMatch, String type, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + type + "-" + id + "-v";
+        for (String etag : ifMatch.split(",")) {
+            etag = etag.trim();
+            if (etag.startsWith(prefix) && etag.endsWith("\"") && etag.length() > prefix.length() + 1) {
+                try {
+                    return Long.parseLong(etag.substring(prefix.length(), etag.length() - 1));
+                } catch (NumberFormatException ignored) {
+                    // не версия этого ресурса, проверяем следующий ETag
+                }
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * Строит слабый ETag страницы. Номер, размер и общее количество элементов отражают удаления и вставки,
+     * хэш идентификаторов — состав и порядок страницы, максимальное время изменения — правки записей.
+     *
+     * @param type тип записей страницы
+     * @param page страница записей
+     * @param id функция получения идентификатора записи
+     * @param lastModified функция получения времени последнего изменения записи
+     * @return слабый ETag в кавычках
+     */
+    public static <T> String weak(String type, Page<T> page, Function<T, Long> id,
+                                  Function<T, LocalDateTime> lastModified) {
+        long maxModified = page.getContent().stream()
+                .map(lastModified)
+                .filter(Objects::nonNull)
+                .mapToLong(ETags::toEpochMicros)
+                .max()
+                .orElse(0);
+        int idsHash = page.getContent().stream().map(id).toList().hashCode();
+        return "W/\"" + type + "-p" + page.getNumber() + "-s" + page.getSize() + "-t" + page.getTotalElements() +
+                "-" + Integer.toHexString(idsHash) + "-" + maxModified + "\"";
+    }
+
+    /**
+     * Переводит время изменения в миллисекунды эпохи для заголовка Last-Modified.
+     *
+     * @param lastModified время последнего изменения
+     * @return миллисекунды эпохи
+     */
+    public static long toEpochMilli(LocalDateTime lastModified) {
+        return lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Отдает страницу со слабым ETag или 304, если клиент прислал совпадающий If-None-Match.
+     * Страница уже загружена, но при совпадении не сериализуется и не передается.
+     *
+     * @param request текущий запрос
+     * @param type тип записей страницы
+     * @param page страница записей
+     * @param id функция получения идентификатора записи
+     * @param lastModified функция получения времени последнего изменения записи
+     * @return ответ со страницей или null, если ответ 304 уже сформирован
+     */
+    public static <T> ResponseEntity<Page<T>> page(WebRequest request, String type, Page<T> page,
+                                                   Function<T, Long> id, Function<T, LocalDateTime> lastModified) {
+        if (request.checkNotModified(weak(type, page, id, lastModified))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(page);
+    }
+
+    private static long toEpochMicros(LocalDateTime lastModified) {
+        return ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), lastModified);
+    }
+}
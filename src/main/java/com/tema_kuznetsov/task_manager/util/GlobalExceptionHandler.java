@@ -1,7 +1,12 @@
 package com.tema_kuznetsov.task_manager.util;
 
 import com.tema_kuznetsov.task_manager.exceptions.commentException.CommentIdNotFoundException;
+import com.tema_kuznetsov.task_manager.exceptions.commentException.CommentVersionMismatchException;
+import com.tema_kuznetsov.task_manager.exceptions.paginationException.InvalidCursorException;
+import com.tema_kuznetsov.task_manager.exceptions.securityException.PasswordHashingUnavailableException;
+import com.tema_kuznetsov.task_manager.exceptions.taskException.TaskBulkLimitExceededException;
 import com.tema_kuznetsov.task_manager.exceptions.taskException.TaskIdNotFoundException;
+import com.tema_kuznetsov.task_manager.exceptions.taskException.TaskVersionMismatchException;
 import com.tema_kuznetsov.task_manager.exceptions.taskException.titleException.TaskTitleNotFoundException;
 import com.tema_kuznetsov.task_manager.exceptions.userException.*;
 import com.tema_kuznetsov.task_manager.exceptions.userException.emailException.IncorrectEmailFormatException;
@@ -11,12 +16,17 @@ import com.tema_kuznetsov.task_manager.exceptions.userException.loginException.U
 import com.tema_kuznetsov.task_manager.exceptions.userException.ownerException.OwnerIdNotFoundException;
 import com.tema_kuznetsov.task_manager.exceptions.userException.performerException.PerformerIdNotFoundException;
 import com.tema_kuznetsov.task_manager.exceptions.userException.roleException.SelfRoleChangeException;
+import com.tema_kuznetsov.task_manager.models.AppUser;
+import com.tema_kuznetsov.task_manager.models.Task;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -30,12 +40,24 @@ import org.springframework.web.servlet.NoHandlerFoundException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
 @ControllerAdvice
 public class GlobalExceptionHandler {
+
+    /**
+     * Сообщения об ошибках для уникальных ограничений базы данных по имени ограничения,
+     * в том же формате, что и ошибки валидации DTO.
+     */
+    private static final Map<String, String> UNIQUE_CONSTRAINT_MESSAGES = Map.of(
+            Task.TITLE_UNIQUE_CONSTRAINT, "title: Задача с таким названием уже существует; ",
+            AppUser.EMAIL_UNIQUE_CONSTRAINT, "email: Пользователь с таким email уже существует; ",
+            AppUser.LOGIN_UNIQUE_CONSTRAINT, "login: Пользователь с таким логином уже существует; "
+    );
+
     /**
      * Обрабатывает исключение ConstraintViolationException.
      *
@@ -102,6 +124,56 @@ public class GlobalExceptionHandler {
                 .body(new ErrorResponse(HttpStatus.BAD_REQUEST, "Ошибка валидации", errorMessage.toString()));
     }
 
+    /**
+     * Обрабатывает нарушение ограничений базы данных.
+     * Нарушение известного уникального ограничения возвращается как ошибка валидации
+     * соответствующего поля, остальные нарушения как конфликт.
+     *
+     * @param ex исключение
+     * @return ответ с ошибкой
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        String message = resolveUniqueConstraintMessage(ex);
+        if (message == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponse(HttpStatus.CONFLICT, "Конфликт данных",
+                            "Операция нарушает ограничения целостности данных"));
+        }
+        return ResponseEntity.badRequest()
+                .body(new ErrorResponse(HttpStatus.BAD_REQUEST, "Ошибка валидации", message));
+    }
+
+    /**
+     * Находит сообщение для нарушенного уникального ограничения.
+     * Имя ограничения берется из исключения Hibernate, а если драйвер его не сообщил, ищется в тексте ошибки.
+     *
+     * @param ex исключение
+     * @return сообщение или null, если ограничение неизвестно
+     */
+    private String resolveUniqueConstraintMessage(DataIntegrityViolationException ex) {
+        String source = null;
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof org.hibernate.exception.ConstraintViolationException violation) {
+                source = violation.getConstraintName();
+                break;
+            }
+        }
+        if (source == null) {
+            source = ex.getMostSpecificCause().getMessage();
+        }
+        if (source == null) {
+            return null;
+        }
+
+        String normalized = source.toLowerCase(Locale.ROOT);
+        return UNIQUE_CONSTRAINT_MESSAGES.entrySet().stream()
+                .filter(entry -> normalized.contains(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<?> handleInvalidPathVariable(MethodArgumentTypeMismatchException ex, HttpServletRequest request) {
         if (ex.getRequiredType() == Long.class) {
@@ -176,6 +248,18 @@ public class GlobalExceptionHandler {
                 .body(new ErrorResponse(HttpStatus.NOT_FOUND, "Некорректный идентификатор", ex.getMessage()));
     }
 
+    @ExceptionHandler(TaskBulkLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleTaskBulkLimitExceeded(TaskBulkLimitExceededException ex) {
+        return ResponseEntity.badRequest()
+                .body(new ErrorResponse(HttpStatus.BAD_REQUEST, "Некорректный запрос", ex.getMessage()));
+    }
+
+    @ExceptionHandler(TaskVersionMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleTaskVersionMismatch(TaskVersionMismatchException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(new ErrorResponse(HttpStatus.PRECONDITION_FAILED, "Устаревшая версия", ex.getMessage()));
+    }
+
     @ExceptionHandler(UserLoginNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleLoginNotFound(UserLoginNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -195,6 +279,39 @@ public class GlobalExceptionHandler {
                 .body(new ErrorResponse(HttpStatus.NOT_FOUND, "Некорректный идентификатор", ex.getMessage()));
     }
 
+    @ExceptionHandler(CommentVersionMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleCommentVersionMismatch(CommentVersionMismatchException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(new ErrorResponse(HttpStatus.PRECONDITION_FAILED, "Устаревшая версия", ex.getMessage()));
+    }
+
+    /**
+     * Обрабатывает конфликт оптимистичной блокировки при запросе без If-Match:
+     * запись была изменена параллельным запросом между чтением и записью.
+     *
+     * @param ex исключение
+     * @return ответ с HTTP статусом 409
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse(HttpStatus.CONFLICT, "Конфликт данных",
+                        "Запись была изменена параллельным запросом, повторите запрос"));
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursor(InvalidCursorException ex) {
+        return ResponseEntity.badRequest()
+                .body(new ErrorResponse(HttpStatus.BAD_REQUEST, "Некорректный курсор", ex.getMessage()));
+    }
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingUnavailable(PasswordHashingUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Сервис перегружен", ex.getMessage()));
+    }
+
     @ExceptionHandler(UserEmailNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleEmailNotFound(UserEmailNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -0,0 +1,39 @@
+package com.tema_kuznetsov.task_manager.util;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+/**
+ * Утилитарный класс для запоминания результатов вычислений в рамках текущего HTTP-запроса.
+ * Значения хранятся в атрибутах запроса, поэтому повторные проверки в одном запросе
+ * не обращаются к базе данных повторно. Вне HTTP-запроса значение вычисляется каждый раз.
+ */
+public class RequestMemo {
+
+    private static final String PREFIX = RequestMemo.class.getName() + ".";
+
+    /**
+     * Возвращает запомненное значение или вычисляет и запоминает его.
+     *
+     * @param key ключ значения в рамках запроса
+     * @param supplier функция вычисления значения
+     * @return запомненное или вычисленное значение
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T computeIfAbsent(String key, Supplier<T> supplier) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return supplier.get();
+        }
+
+        String attributeName = PREFIX + key;
+        Object value = attributes.getAttribute(attributeName, RequestAttributes.SCOPE_REQUEST);
+        if (value == null) {
+            value = supplier.get();
+            attributes.setAttribute(attributeName, value, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (T) value;
+    }
+}
@@ -19,4 +19,28 @@ public class SecurityUtils {
         CustomUserDetails userDetails = (CustomUserDetails) auth.getPrincipal();
         return userDetails.getId();
     }
-}
\ No newline at end of file
+
+    /**
+     * Получает идентификатор пользователя из переданной аутентификации.
+     *
+     * @param authentication аутентификация пользователя
+     * @return идентификатор пользователя или null, если принципал не является {@link CustomUserDetails}
+     */
+    public static Long getUserId(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails userDetails) {
+            return userDetails.getId();
+        }
+        return null;
+    }
+
+    /**
+     * Проверяет, есть ли у текущего пользователя роль ADMIN.
+     *
+     * @return true, если текущий пользователь администратор
+     */
+    public static boolean isCurrentUserAdmin() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+}
@@ -0,0 +1,12 @@
+package com.tema_kuznetsov.task_manager.util.cache;
+
+/**
+ * Событие об изменении сущности, хранящейся в кеше второго уровня.
+ * Публикуется после коммита, чтобы транспорт между экземплярами приложения (например, Redis pub/sub)
+ * передал его остальным узлам, где оно применяется через {@link EntityCacheInvalidator#apply}.
+ *
+ * @param entityName имя сущности Hibernate
+ * @param id идентификатор сущности или null, если изменена неизвестная часть сущностей (пакетный запрос)
+ */
+public record EntityCacheInvalidationEvent(String entityName, Object id) {
+}
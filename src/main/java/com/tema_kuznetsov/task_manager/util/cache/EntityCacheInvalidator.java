@@ -0,0 +1,93 @@
+package com.tema_kuznetsov.task_manager.util.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.annotations.NaturalIdCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Точка согласования кеша второго уровня между экземплярами приложения.
+ * Изменения отдельных сущностей объявляются {@link EntityCacheInvalidationListener},
+ * а запросы {@code UPDATE} и {@code DELETE}, которые Hibernate не разбирает по сущностям,
+ * объявляются через {@link #announce(Class, Object)}.
+ * Полученные от других узлов события применяются методом {@link #apply(EntityCacheInvalidationEvent)}.
+ * Транспорт в приложение не входит: его подключают слушателем {@link EntityCacheInvalidationEvent},
+ * который пересылает событие остальным узлам, а на принимающем узле вызывает {@code apply}.
+ * Собственные события узла применять не нужно: его локальный кеш Hibernate уже сбросил.
+ * Без транспорта расхождение кешей между узлами ограничено временем жизни записей региона
+ * ({@code second-level-cache.ttl}).
+ * Примененные события публикуются как метрика {@code hibernate.cache.remote.invalidations}.
+ */
+@Component
+public class EntityCacheInvalidator {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter remoteInvalidations;
+
+    public EntityCacheInvalidator(EntityManagerFactory entityManagerFactory,
+                                  ApplicationEventPublisher eventPublisher,
+                                  MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.remoteInvalidations = Counter.builder("hibernate.cache.remote.invalidations")
+                .description("Сброшенные по событиям других узлов записи кеша второго уровня")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Объявляет об изменении сущностей запросом в обход их загрузки.
+     * Внутри транзакции событие публикуется после коммита.
+     *
+     * @param entityClass класс сущности
+     * @param id идентификатор сущности или null, если запрос мог изменить любые сущности класса
+     */
+    public void announce(Class<?> entityClass, Object id) {
+        EntityCacheInvalidationEvent event = new EntityCacheInvalidationEvent(entityClass.getName(), id);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventPublisher.publishEvent(event);
+                }
+            });
+        } else {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    /**
+     * Сбрасывает локальный кеш по событию, полученному от другого узла.
+     * Вместе с сущностью сбрасывается кеш ее натуральных идентификаторов,
+     * так как у измененной сущности мог поменяться натуральный идентификатор.
+     *
+     * @param event событие об изменении сущности
+     */
+    public void apply(EntityCacheInvalidationEvent event) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (event.id() == null) {
+            cache.evictEntityData(event.entityName());
+        } else {
+            cache.evictEntityData(event.entityName(), event.id());
+        }
+        if (hasNaturalIdCache(event.entityName())) {
+            cache.evictNaturalIdData(event.entityName());
+        }
+        remoteInvalidations.increment();
+    }
+
+    private static boolean hasNaturalIdCache(String entityName) {
+        try {
+            return Class.forName(entityName).isAnnotationPresent(NaturalIdCache.class);
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
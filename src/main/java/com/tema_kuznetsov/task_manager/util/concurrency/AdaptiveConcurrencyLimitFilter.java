@@ -0,0 +1,105 @@
+package com.tema_kuznetsov.task_manager.util.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tema_kuznetsov.task_manager.util.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Фильтр сброса нагрузки, ограничивающий число одновременно обрабатываемых запросов.
+ * Запросы сверх адаптивного лимита отклоняются сразу с ответом 503, не занимая
+ * соединения с базой данных. Приоритет запроса определяется по пути.
+ * В оценку лимита попадают только успешные ответы (2xx) и ошибки 5xx без {@code Retry-After}.
+ * Остальные ответы либо отклонены до обращения к базе (401, 403, 429, 304), либо сами являются
+ * сбросом нагрузки (503 с {@code Retry-After}) и ничего не говорят о ее перегрузке.
+ */
+public class AdaptiveConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimitFilter.class);
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ObjectMapper objectMapper;
+    private final List<String> criticalPaths;
+    private final List<String> sheddablePaths;
+    private final long retryAfterSeconds;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public AdaptiveConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                          ObjectMapper objectMapper,
+                                          List<String> criticalPaths,
+                                          List<String> sheddablePaths,
+                                          long retryAfterSeconds) {
+        this.limiter = limiter;
+        this.objectMapper = objectMapper;
+        this.criticalPaths = criticalPaths;
+        this.sheddablePaths = sheddablePaths;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        RequestPriority priority = resolvePriority(request.getRequestURI());
+        int inflight = limiter.tryAcquire(priority);
+        if (inflight < 0) {
+            logger.debug("Запрос отклонен при сбросе нагрузки: {} {}", priority, request.getRequestURI());
+            ErrorResponse errorResponse = new ErrorResponse(
+                    HttpStatus.SERVICE_UNAVAILABLE,
+                    "Сервис перегружен, повторите запрос позже",
+                    request.getRequestURI()
+            );
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            response.setContentType("application/json");
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        boolean sampled = true;
+        try {
+            filterChain.doFilter(request, response);
+            HttpStatus status = HttpStatus.resolve(response.getStatus());
+            dropped = status != null && status.is5xxServerError() && !response.containsHeader("Retry-After");
+            sampled = dropped || status != null && status.is2xxSuccessful();
+        } finally {
+            if (sampled) {
+                limiter.release(priority, System.nanoTime() - start, inflight, dropped);
+            } else {
+                limiter.release();
+            }
+        }
+    }
+
+    private RequestPriority resolvePriority(String path) {
+        if (matchesAny(criticalPaths, path)) {
+            return RequestPriority.CRITICAL;
+        }
+        if (matchesAny(sheddablePaths, path)) {
+            return RequestPriority.SHEDDABLE;
+        }
+        return RequestPriority.NORMAL;
+    }
+
+    private boolean matchesAny(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
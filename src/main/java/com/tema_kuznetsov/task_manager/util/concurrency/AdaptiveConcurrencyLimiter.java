@@ -0,0 +1,167 @@
+package com.tema_kuznetsov.task_manager.util.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Адаптивный лимит одновременно обрабатываемых запросов по алгоритму TCP Vegas.
+ * По минимальному наблюдаемому времени ответа (без очереди) и текущему времени ответа
+ * оценивается длина очереди перед ресурсами (пул соединений, база данных): пока очередь мала,
+ * лимит растет, при росте очереди или ошибках 5xx лимит уменьшается.
+ * Минимальное время ответа хранится отдельно для каждого приоритета, чтобы быстрые проверки токена
+ * не занижали базовую задержку обычных и списочных запросов. Ответы, отклоненные до обработки
+ * (401, 429, 304 и т.п.), в оценку не попадают: они освобождают место через {@link #release()}.
+ * Запросы с более низким приоритетом могут занимать только часть лимита
+ * ({@code concurrency-limit.normal-share}, {@code concurrency-limit.sheddable-share}),
+ * поэтому при перегрузке они отклоняются первыми.
+ * Текущий лимит, число запросов в обработке и отклонения публикуются как метрики
+ * {@code concurrency.limit}, {@code concurrency.inflight} и {@code concurrency.rejected}.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int PROBE_MULTIPLIER = 30;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final Map<RequestPriority, Double> shares = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Counter> rejected = new EnumMap<>(RequestPriority.class);
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile double limit;
+    private final Map<RequestPriority, Long> rttNoLoad = new EnumMap<>(RequestPriority.class);
+    private long samples;
+
+    /**
+     * Конструктор, задающий границы лимита и регистрирующий метрики.
+     *
+     * @param initialLimit начальный лимит
+     * @param minLimit минимальный лимит
+     * @param maxLimit максимальный лимит
+     * @param normalShare доля лимита, доступная обычным запросам
+     * @param sheddableShare доля лимита, доступная тяжелым списочным запросам
+     * @param meterRegistry реестр метрик
+     */
+    public AdaptiveConcurrencyLimiter(@Value("${concurrency-limit.initial-limit:20}") int initialLimit,
+                                      @Value("${concurrency-limit.min-limit:4}") int minLimit,
+                                      @Value("${concurrency-limit.max-limit:200}") int maxLimit,
+                                      @Value("${concurrency-limit.normal-share:0.9}") double normalShare,
+                                      @Value("${concurrency-limit.sheddable-share:0.5}") double sheddableShare,
+                                      MeterRegistry meterRegistry) {
+        this.minLimit = minLimit;
+        this.maxLimit = Math.max(minLimit, maxLimit);
+        this.limit = Math.max(minLimit, Math.min(this.maxLimit, initialLimit));
+        shares.put(RequestPriority.CRITICAL, 1.0);
+        shares.put(RequestPriority.NORMAL, normalShare);
+        shares.put(RequestPriority.SHEDDABLE, sheddableShare);
+
+        Gauge.builder("concurrency.limit", () -> limit)
+                .description("Текущий адаптивный лимит одновременных запросов")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.inflight", inflight, AtomicInteger::get)
+                .description("Запросы в обработке")
+                .register(meterRegistry);
+        for (RequestPriority priority : RequestPriority.values()) {
+            rejected.put(priority, Counter.builder("concurrency.rejected")
+                    .description("Запросы, отклоненные при сбросе нагрузки")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Пытается занять место для запроса с заданным приоритетом.
+     *
+     * @param priority приоритет запроса
+     * @return число запросов в обработке, включая этот, или -1, если запрос нужно отклонить
+     */
+    public int tryAcquire(RequestPriority priority) {
+        int allowed = Math.max(1, (int) (limit * shares.get(priority)));
+        while (true) {
+            int current = inflight.get();
+            if (current >= allowed) {
+                rejected.get(priority).increment();
+                return -1;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Освобождает место и учитывает время ответа в оценке лимита.
+     *
+     * @param priority приоритет запроса
+     * @param rttNanos время обработки запроса
+     * @param inflightAtStart число запросов в обработке на момент начала запроса
+     * @param dropped завершился ли запрос ошибкой, указывающей на перегрузку
+     */
+    public void release(RequestPriority priority, long rttNanos, int inflightAtStart, boolean dropped) {
+        inflight.decrementAndGet();
+        update(priority, rttNanos, inflightAtStart, dropped);
+    }
+
+    /**
+     * Освобождает место, не учитывая время ответа: запрос не дошел до ресурсов, которые защищает лимит.
+     */
+    public void release() {
+        inflight.decrementAndGet();
+    }
+
+    /**
+     * Возвращает текущий лимит.
+     *
+     * @return лимит одновременных запросов
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    private synchronized void update(RequestPriority priority, long rtt, int inflightAtStart, boolean dropped) {
+        double current = limit;
+        if (++samples % (PROBE_MULTIPLIER * Math.max(1, (long) current)) == 0) {
+            // Периодически забываем минимальное время ответа, чтобы заметить изменение базовой задержки.
+            rttNoLoad.clear();
+        }
+        if (dropped) {
+            // Быстрая ошибка не считается временем ответа без очереди.
+            limit = Math.max(minLimit, current * BACKOFF_RATIO);
+            return;
+        }
+        Long baseline = rttNoLoad.get(priority);
+        if (baseline == null || rtt < baseline) {
+            rttNoLoad.put(priority, rtt);
+            return;
+        }
+
+        if (inflightAtStart * 2 < current) {
+            // Лимит не используется и наполовину: время ответа ничего не говорит о его величине.
+            return;
+        }
+
+        double log = Math.max(1, Math.log10(current));
+        double alpha = 3 * log;
+        double beta = 6 * log;
+        double queue = Math.ceil(current * (1 - (double) baseline / rtt));
+        double next;
+        if (queue <= log) {
+            next = current + beta;
+        } else if (queue < alpha) {
+            next = current + log;
+        } else if (queue > beta) {
+            next = current - log;
+        } else {
+            return;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
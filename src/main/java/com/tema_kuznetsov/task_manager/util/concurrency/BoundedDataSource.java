@@ -0,0 +1,132 @@
+package com.tema_kuznetsov.task_manager.util.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Источник данных, ограничивающий число одновременно выданных соединений семафором.
+ * С виртуальными потоками число ожидающих соединения запросов не ограничено пулом потоков Tomcat,
+ * и тысячи потоков, ожидающих внутри пула соединений, дают лишнюю конкуренцию и ложные таймауты.
+ * Семафор с размером пула выстраивает их в справедливую очередь до обращения к пулу;
+ * разрешение возвращается при закрытии соединения.
+ * Очередь и свободные разрешения публикуются как метрики {@code datasource.permits.waiting}
+ * и {@code datasource.permits.available}.
+ */
+public class BoundedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+
+    /**
+     * Конструктор, оборачивающий источник данных.
+     *
+     * @param target исходный источник данных
+     * @param maxConnections максимальное число одновременно выданных соединений
+     * @param acquireTimeout максимальное время ожидания разрешения
+     */
+    public BoundedDataSource(DataSource target, int maxConnections, Duration acquireTimeout) {
+        super(target);
+        this.permits = new Semaphore(maxConnections, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * Регистрирует метрики очереди за соединениями.
+     *
+     * @param meterRegistry реестр метрик
+     * @param name имя источника данных, записываемое в тег {@code name}
+     */
+    public void bindTo(MeterRegistry meterRegistry, String name) {
+        Gauge.builder("datasource.permits.waiting", permits, Semaphore::getQueueLength)
+                .description("Потоки, ожидающие разрешения на соединение с базой данных")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("datasource.permits.available", permits, Semaphore::availablePermits)
+                .description("Свободные разрешения на соединение с базой данных")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public Duration getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasing(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasing(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Соединение с базой данных недоступно, ожидание превысило " + acquireTimeout.toMillis() + " мс");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Ожидание соединения с базой данных прервано", e);
+        }
+    }
+
+    /**
+     * Оборачивает соединение так, чтобы первое закрытие вернуло разрешение.
+     */
+    private Connection releasing(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    if ("unwrap".equals(method.getName()) && ((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,24 @@
+package com.tema_kuznetsov.task_manager.util.concurrency;
+
+/**
+ * Класс приоритета запроса при сбросе нагрузки.
+ * Чем ниже приоритет, тем меньшую долю лимита конкурентности могут занять такие запросы
+ * и тем раньше они отклоняются при перегрузке.
+ */
+public enum RequestPriority {
+
+    /**
+     * Запросы, которые сбрасываются последними: проверка токена, текущий пользователь.
+     */
+    CRITICAL,
+
+    /**
+     * Обычные запросы.
+     */
+    NORMAL,
+
+    /**
+     * Тяжелые списочные запросы, которые сбрасываются первыми.
+     */
+    SHEDDABLE
+}
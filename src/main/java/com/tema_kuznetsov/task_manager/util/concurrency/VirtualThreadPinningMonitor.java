@@ -0,0 +1,89 @@
+package com.tema_kuznetsov.task_manager.util.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Диагностика закрепления (pinning) виртуальных потоков за потоком-носителем.
+ * Подписывается на событие JFR {@code jdk.VirtualThreadPinned}, которое JVM выпускает,
+ * когда виртуальный поток блокируется внутри {@code synchronized} или нативного кадра
+ * (например, в синхронизированных участках Hibernate или драйвера JDBC) дольше порога.
+ * Каждое событие логируется с верхними кадрами стека и учитывается в метрике
+ * {@code jvm.threads.virtual.pinned}.
+ */
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+    private final Counter pinned;
+    private RecordingStream stream;
+
+    /**
+     * Конструктор, регистрирующий метрику.
+     *
+     * @param threshold минимальная длительность закрепления, о которой сообщается
+     * @param meterRegistry реестр метрик
+     */
+    public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Закрепления виртуальных потоков дольше порога")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Запускает чтение событий JFR в фоновом потоке.
+     */
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        logger.info("Диагностика закрепления виртуальных потоков включена, порог {} мс", threshold.toMillis());
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        logger.warn("Виртуальный поток закреплен на {} мс:\n{}", event.getDuration().toMillis(),
+                formatStackTrace(event.getStackTrace()));
+    }
+
+    private static String formatStackTrace(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\tстек недоступен";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        return frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Останавливает чтение событий при завершении приложения.
+     */
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
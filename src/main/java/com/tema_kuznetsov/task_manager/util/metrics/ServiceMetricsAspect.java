@@ -0,0 +1,93 @@
+package com.tema_kuznetsov.task_manager.util.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Аспект, измеряющий время выполнения публичных методов сервисов.
+ * Каждый вызов записывается в таймер {@code service.invocations} с тегами класса, метода,
+ * эндпоинта, из которого выполнен вызов, и результата.
+ * Таймер публикует гистограмму, перцентили считаются в Prometheus. Таймеры создаются один раз
+ * для каждого сочетания метода, эндпоинта и результата, а не ищутся в реестре при каждом вызове.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    /**
+     * Значение тега для вызовов вне обработки запроса или до выбора обработчика.
+     */
+    public static final String NO_ENDPOINT = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Измеряет время выполнения метода сервиса.
+     *
+     * @param joinPoint вызываемый метод
+     * @return результат метода
+     * @throws Throwable исключение метода, пробрасывается без изменений
+     */
+    @Around("within(com.tema_kuznetsov.task_manager.services..*) "
+            + "&& @within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = joinPoint.proceed();
+            success = true;
+            return result;
+        } finally {
+            timers.computeIfAbsent(new TimerKey(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                            currentEndpoint(), success), this::timer)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(TimerKey key) {
+        return Timer.builder("service.invocations")
+                .description("Время выполнения методов сервисов")
+                .tag("class", key.method().getDeclaringClass().getSimpleName())
+                .tag("method", key.method().getName())
+                .tag("endpoint", key.endpoint())
+                .tag("outcome", key.success() ? "SUCCESS" : "ERROR")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Возвращает шаблон пути обрабатываемого запроса, например {@code /api/tasks/{id}}.
+     *
+     * @return шаблон пути или {@link #NO_ENDPOINT}
+     */
+    public static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return NO_ENDPOINT;
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        return pattern != null ? pattern.toString() : NO_ENDPOINT;
+    }
+
+    private record TimerKey(Method method, String endpoint, boolean success) {
+    }
+}
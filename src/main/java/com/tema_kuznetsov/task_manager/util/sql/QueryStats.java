@@ -0,0 +1,154 @@
+package com.tema_kuznetsov.task_manager.util.sql;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Статистика SQL-запросов, выполненных в текущем потоке в пределах области наблюдения.
+ * Области вкладываются друг в друга: запрос учитывается во всех открытых областях потока,
+ * поэтому тест может ограничить число запросов вокруг HTTP-запроса, который открывает свою область.
+ * Форма запроса — SQL с параметрами-заполнителями, по ней обнаруживаются повторы (N+1).
+ * Дополнительно учитывается время, в течение которого поток удерживал хотя бы одно соединение с базой данных.
+ */
+public final class QueryStats implements AutoCloseable {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final QueryStats parent;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private final Set<String> repeatedShapes = new LinkedHashSet<>();
+    private int statementCount;
+    private long elapsedMillis;
+    private int openConnections;
+    private long connectionSince;
+    private long connectionHeldNanos;
+
+    private QueryStats(QueryStats parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Открывает новую область наблюдения в текущем потоке.
+     *
+     * @return статистика области; закрывается через {@link #close()}
+     */
+    public static QueryStats open() {
+        QueryStats stats = new QueryStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Возвращает самую вложенную открытую область текущего потока.
+     *
+     * @return статистика области или null, если область не открыта
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Учитывает выполненный запрос во всех открытых областях.
+     *
+     * @param shape форма запроса
+     * @param elapsed время выполнения в миллисекундах
+     * @param repeatThreshold сколько повторов одной формы допустимо
+     * @return true, если в этой области форма только что превысила допустимое число повторов
+     */
+    boolean record(String shape, long elapsed, int repeatThreshold) {
+        boolean exceeded = false;
+        for (QueryStats stats = this; stats != null; stats = stats.parent) {
+            boolean scopeExceeded = stats.add(shape, elapsed, repeatThreshold);
+            if (stats == this) {
+                exceeded = scopeExceeded;
+            }
+        }
+        return exceeded;
+    }
+
+    private boolean add(String shape, long elapsed, int repeatThreshold) {
+        statementCount++;
+        elapsedMillis += elapsed;
+        int count = shapes.merge(shape, 1, Integer::sum);
+        if (count == repeatThreshold + 1) {
+            repeatedShapes.add(shape);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Учитывает полученное соединение во всех открытых областях.
+     *
+     * @param now текущее время в наносекундах
+     */
+    void connectionAcquired(long now) {
+        for (QueryStats stats = this; stats != null; stats = stats.parent) {
+            if (stats.openConnections++ == 0) {
+                stats.connectionSince = now;
+            }
+        }
+    }
+
+    /**
+     * Учитывает возвращенное соединение во всех открытых областях.
+     * Соединения, полученные до открытия области, не учитываются.
+     *
+     * @param now текущее время в наносекундах
+     */
+    void connectionReleased(long now) {
+        for (QueryStats stats = this; stats != null; stats = stats.parent) {
+            if (stats.openConnections > 0 && --stats.openConnections == 0) {
+                stats.connectionHeldNanos += now - stats.connectionSince;
+            }
+        }
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Возвращает время, в течение которого поток удерживал хотя бы одно соединение.
+     *
+     * @return время удержания соединений в наносекундах, включая еще не возвращенные соединения
+     */
+    public long getConnectionHeldNanos() {
+        long held = connectionHeldNanos;
+        if (openConnections > 0) {
+            held += System.nanoTime() - connectionSince;
+        }
+        return held;
+    }
+
+    /**
+     * Возвращает формы запросов, повторенные больше допустимого числа раз.
+     *
+     * @return формы запросов в порядке обнаружения
+     */
+    public Set<String> getRepeatedShapes() {
+        return Collections.unmodifiableSet(repeatedShapes);
+    }
+
+    /**
+     * Закрывает область и восстанавливает внешнюю.
+     */
+    @Override
+    public void close() {
+        if (CURRENT.get() != this) {
+            return;
+        }
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+}
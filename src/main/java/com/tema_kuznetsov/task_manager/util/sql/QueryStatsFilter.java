@@ -0,0 +1,81 @@
+package com.tema_kuznetsov.task_manager.util.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фильтр, открывающий область {@link QueryStats} на время HTTP-запроса.
+ * Число SQL-запросов и время удержания соединений публикуются как метрики {@code sql.statements.per.request}
+ * и {@code sql.connection.held.per.request} с тегом эндпоинта.
+ * При включенных заголовках ({@code sql.monitoring.response-headers}, профиль dev) ответ буферизуется,
+ * чтобы добавить заголовки {@code X-Query-Count}, {@code X-Query-Time}, {@code X-Query-Repeated}
+ * и {@code X-Connection-Time}.
+ */
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    private static final String NO_ENDPOINT = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean responseHeaders;
+    private final Map<String, DistributionSummary> statementSummaries = new ConcurrentHashMap<>();
+    private final Map<String, Timer> connectionTimers = new ConcurrentHashMap<>();
+
+    public QueryStatsFilter(MeterRegistry meterRegistry, boolean responseHeaders) {
+        this.meterRegistry = meterRegistry;
+        this.responseHeaders = responseHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        try (QueryStats stats = QueryStats.open()) {
+            if (responseHeaders) {
+                ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+                try {
+                    filterChain.doFilter(request, wrapper);
+                } finally {
+                    wrapper.setHeader("X-Query-Count", String.valueOf(stats.getStatementCount()));
+                    wrapper.setHeader("X-Query-Time", String.valueOf(stats.getElapsedMillis()));
+                    wrapper.setHeader("X-Query-Repeated", String.valueOf(stats.getRepeatedShapes().size()));
+                    wrapper.setHeader("X-Connection-Time",
+                            String.valueOf(TimeUnit.NANOSECONDS.toMillis(stats.getConnectionHeldNanos())));
+                    wrapper.copyBodyToResponse();
+                }
+            } else {
+                filterChain.doFilter(request, response);
+            }
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern != null ? pattern.toString() : NO_ENDPOINT;
+        statementSummaries.computeIfAbsent(endpoint, tag -> DistributionSummary.builder("sql.statements.per.request")
+                        .description("Количество SQL-запросов на HTTP-запрос")
+                        .tag("endpoint", tag)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(stats.getStatementCount());
+        connectionTimers.computeIfAbsent(endpoint, tag -> Timer.builder("sql.connection.held.per.request")
+                        .description("Время, в течение которого HTTP-запрос удерживал соединение с базой данных")
+                        .tag("endpoint", tag)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(stats.getConnectionHeldNanos(), TimeUnit.NANOSECONDS);
+    }
+}
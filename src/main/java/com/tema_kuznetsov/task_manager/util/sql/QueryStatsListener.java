@@ -0,0 +1,147 @@
+package com.tema_kuznetsov.task_manager.util.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Слушатель datasource-proxy, учитывающий каждый SQL-запрос в {@link QueryStats} текущего потока.
+ * Запросы дольше {@code sql.monitoring.slow-query-threshold} логируются с параметрами и вызвавшим
+ * методом сервиса, а форма запроса, повторенная в одной области больше
+ * {@code sql.monitoring.repeat-threshold} раз, логируется как вероятная проблема N+1.
+ * Счетчики публикуются как метрики {@code sql.slow.queries} и {@code sql.repeated.queries}.
+ * Получение и закрытие соединений отмечаются в {@link QueryStats}, чтобы измерить время их удержания.
+ */
+@Component
+public class QueryStatsListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryStatsListener.class);
+
+    private static final String APPLICATION_PACKAGE = "com.tema_kuznetsov.task_manager.";
+    private static final String SERVICES_PACKAGE = APPLICATION_PACKAGE + "services.";
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long slowQueryThresholdMillis;
+    private final int repeatThreshold;
+    private final Counter slowQueries;
+    private final Counter repeatedQueries;
+
+    /**
+     * Конструктор, задающий пороги и регистрирующий метрики.
+     *
+     * @param slowQueryThreshold время, начиная с которого запрос считается медленным
+     * @param repeatThreshold сколько повторов одной формы запроса допустимо в пределах HTTP-запроса
+     * @param meterRegistry реестр метрик
+     */
+    public QueryStatsListener(@Value("${sql.monitoring.slow-query-threshold:200ms}") Duration slowQueryThreshold,
+                              @Value("${sql.monitoring.repeat-threshold:10}") int repeatThreshold,
+                              MeterRegistry meterRegistry) {
+        this.slowQueryThresholdMillis = slowQueryThreshold.toMillis();
+        this.repeatThreshold = repeatThreshold;
+        this.slowQueries = Counter.builder("sql.slow.queries")
+                .description("SQL-запросы дольше порога")
+                .register(meterRegistry);
+        this.repeatedQueries = Counter.builder("sql.repeated.queries")
+                .description("Формы SQL-запросов, повторенные в одном HTTP-запросе больше порога (N+1)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryStats stats = QueryStats.current();
+        long elapsed = execInfo.getElapsedTime();
+
+        for (int i = 0; i < queryInfoList.size(); i++) {
+            String shape = normalize(queryInfoList.get(i).getQuery());
+            if (stats != null && stats.record(shape, i == 0 ? elapsed : 0, repeatThreshold)) {
+                repeatedQueries.increment();
+                logger.warn("Вероятная проблема N+1: запрос выполнен более {} раз из {}: {}",
+                        repeatThreshold, caller(), shape);
+            }
+        }
+
+        if (elapsed >= slowQueryThresholdMillis) {
+            slowQueries.increment();
+            logger.warn("Медленный запрос ({} мс) из {}: {} параметры: {}", elapsed, caller(),
+                    queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")),
+                    queryInfoList.stream().map(QueryStatsListener::formatParameters).collect(Collectors.joining("; ")));
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null && executionContext.getTarget() instanceof Connection
+                && "close".equals(executionContext.getMethod().getName())
+                && !executionContext.getConnectionInfo().isClosed()) {
+            stats.connectionReleased(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null && executionContext.getTarget() instanceof DataSource
+                && "getConnection".equals(executionContext.getMethod().getName())
+                && executionContext.getThrown() == null) {
+            stats.connectionAcquired(System.nanoTime());
+        }
+    }
+
+    /**
+     * Приводит SQL к форме, не зависящей от размера IN-списков и форматирования.
+     */
+    static String normalize(String sql) {
+        String collapsed = WHITESPACE.matcher(sql.strip()).replaceAll(" ");
+        return IN_LIST.matcher(collapsed).replaceAll("(?)");
+    }
+
+    private static String formatParameters(QueryInfo queryInfo) {
+        return queryInfo.getParametersList().stream()
+                .map(parameters -> parameters.stream()
+                        .map(ParameterSetOperation::getArgs)
+                        .map(args -> args.length > 1 ? String.valueOf(args[1]) : "")
+                        .collect(Collectors.joining(", ", "[", "]")))
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Возвращает метод сервиса, из которого выполнен запрос, или ближайший метод приложения.
+     */
+    private static String caller() {
+        List<StackWalker.StackFrame> frames = StackWalker.getInstance().walk(stream -> stream
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE))
+                .filter(frame -> !frame.getClassName().startsWith(QueryStatsListener.class.getPackageName()))
+                .filter(frame -> !frame.getClassName().contains("$$"))
+                .toList());
+        Optional<StackWalker.StackFrame> frame = frames.stream()
+                .filter(f -> f.getClassName().startsWith(SERVICES_PACKAGE))
+                .findFirst()
+                .or(() -> frames.stream().findFirst());
+        return frame.map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1)
+                        + "." + f.getMethodName())
+                .orElse("unknown");
+    }
+}
@@ -1,12 +1,18 @@
 package com.tema_kuznetsov.task_manager.validators.commentValidators;
 
+import com.tema_kuznetsov.task_manager.dto.comment.CommentAccessDto;
 import com.tema_kuznetsov.task_manager.repositories.CommentRepository;
+import com.tema_kuznetsov.task_manager.util.RequestMemo;
+import com.tema_kuznetsov.task_manager.util.SecurityUtils;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * Валидатор, который проверяет, является ли пользователь владельцем комментария.
  * Используется для проверки прав доступа пользователя к определенному комментарию.
+ * Автор определяется запросом-проекцией, результат которого запоминается до конца HTTP-запроса.
  */
 @Component("commentOwnerValidator")
 public class CommentOwnerValidator {
@@ -30,9 +36,20 @@ public class CommentOwnerValidator {
      * @return true, если пользователь является автором комментария, иначе false.
      */
     public boolean isCommentOwner(Long commentId, Authentication authentication) {
-        String userEmail = authentication.getName();
-        return commentRepository.findById(commentId)
-                .map(comment -> comment.getAuthor().getEmail().equals(userEmail))
+        Long userId = SecurityUtils.getUserId(authentication);
+        return userId != null && findAccess(commentId)
+                .map(access -> userId.equals(access.getAuthorId()))
                 .orElse(false);
     }
-}
\ No newline at end of file
+
+    /**
+     * Возвращает проекцию комментария для проверки прав, запомненную в рамках текущего запроса.
+     *
+     * @param commentId ID комментария.
+     * @return Опциональная проекция комментария.
+     */
+    private Optional<CommentAccessDto> findAccess(Long commentId) {
+        return RequestMemo.computeIfAbsent("commentAccess." + commentId,
+                () -> commentRepository.findAccessById(commentId));
+    }
+}
@@ -1,25 +1,34 @@
 package com.tema_kuznetsov.task_manager.validators.taskValidators;
 
-import com.tema_kuznetsov.task_manager.services.TaskService;
+import com.tema_kuznetsov.task_manager.dto.task.TaskAccessDto;
+import com.tema_kuznetsov.task_manager.repositories.TaskRepository;
+import com.tema_kuznetsov.task_manager.util.RequestMemo;
+import com.tema_kuznetsov.task_manager.util.SecurityUtils;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import java.util.Objects;
+import java.util.Optional;
+
 /**
  * Валидатор, который проверяет, является ли пользователь владельцем задачи или исполнителем.
  * Используется для проверки прав доступа пользователя к задаче.
+ * Владелец и исполнитель определяются одним запросом-проекцией, результат которого
+ * запоминается до конца HTTP-запроса, поэтому совмещенная проверка владельца и исполнителя
+ * не загружает задачу и пользователей.
  */
 @Component("taskOwnerValidator")
 public class TaskOwnerValidator {
 
-    private final TaskService taskService;
+    private final TaskRepository taskRepository;
 
     /**
-     * Конструктор для инициализации TaskOwnerValidator с сервисом задач.
+     * Конструктор для инициализации TaskOwnerValidator с репозиторием задач.
      *
-     * @param taskService Сервис для работы с задачами.
+     * @param taskRepository Репозиторий для работы с задачами.
      */
-    public TaskOwnerValidator(TaskService taskService) {
-        this.taskService = taskService;
+    public TaskOwnerValidator(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
     }
 
     /**
@@ -30,8 +39,10 @@ public class TaskOwnerValidator {
      * @return true, если пользователь является владельцем задачи, иначе false.
      */
     public boolean isTaskOwner(Long taskId, Authentication authentication) {
-        String userEmail = authentication.getName();
-        return taskService.isOwner(taskId, userEmail);
+        Long userId = SecurityUtils.getUserId(authentication);
+        return userId != null && findAccess(taskId)
+                .map(access -> userId.equals(access.getOwnerId()))
+                .orElse(false);
     }
 
     /**
@@ -42,7 +53,19 @@ public class TaskOwnerValidator {
      * @return true, если пользователь является исполнителем задачи, иначе false.
      */
     public boolean isTaskPerformer(Long taskId, Authentication authentication) {
-        String userEmail = authentication.getName();
-        return taskService.isPerformer(taskId, userEmail);
+        Long userId = SecurityUtils.getUserId(authentication);
+        return userId != null && findAccess(taskId)
+                .map(access -> Objects.equals(userId, access.getPerformerId()))
+                .orElse(false);
+    }
+
+    /**
+     * Возвращает проекцию задачи для проверки прав, запомненную в рамках текущего запроса.
+     *
+     * @param taskId ID задачи.
+     * @return Опциональная проекция задачи.
+     */
+    private Optional<TaskAccessDto> findAccess(Long taskId) {
+        return RequestMemo.computeIfAbsent("taskAccess." + taskId, () -> taskRepository.findAccessById(taskId));
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,29 @@
 package com.tema_kuznetsov.task_manager.validators.taskValidators;
 
 import com.tema_kuznetsov.task_manager.annotations.taskAnnotations.UniqueTaskTitle;
+import com.tema_kuznetsov.task_manager.models.Task;
 import com.tema_kuznetsov.task_manager.repositories.TaskRepository;
+import com.tema_kuznetsov.task_manager.services.TaskTitleRegistry;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
+import org.hibernate.validator.constraintvalidation.HibernateConstraintValidatorContext;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Set;
+
 /**
  * Валидатор для аннотации UniqueTaskTitle, проверяет, что заголовок задачи уникален в системе.
+ * Заголовки, которых точно нет в {@link TaskTitleRegistry}, принимаются без запроса к базе данных.
+ * Если валидатор создан с payload {@link ExistingTitles} (пакетное создание задач), занятые заголовки
+ * уже загружены одним запросом на весь пакет и проверяются по нему.
  */
 public class UniqueTaskTitleValidator implements ConstraintValidator<UniqueTaskTitle, String> {
     @Autowired
     private TaskRepository taskRepository;
 
+    @Autowired
+    private TaskTitleRegistry taskTitleRegistry;
+
     /**
      * Проверяет, что заголовок задачи уникален в системе.
      *
@@ -25,6 +36,22 @@ public class UniqueTaskTitleValidator implements ConstraintValidator<UniqueTaskT
         if (title == null || title.isBlank()) {
             return true;
         }
+        if (!taskTitleRegistry.mightExist(title)) {
+            return true;
+        }
+        ExistingTitles existingTitles = context.unwrap(HibernateConstraintValidatorContext.class)
+                .getConstraintValidatorPayload(ExistingTitles.class);
+        if (existingTitles != null) {
+            return !existingTitles.normalizedTitles().contains(Task.normalizeTitle(title));
+        }
         return !taskRepository.existsByTitle(title);
     }
+
+    /**
+     * Нормализованные заголовки, заранее найденные в базе данных для проверяемого пакета задач.
+     *
+     * @param normalizedTitles занятые нормализованные заголовки
+     */
+    public record ExistingTitles(Set<String> normalizedTitles) {
+    }
 }
\ No newline at end of file
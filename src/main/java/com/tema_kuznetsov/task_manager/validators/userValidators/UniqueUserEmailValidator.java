@@ -2,17 +2,22 @@ package com.tema_kuznetsov.task_manager.validators.userValidators;
 
 import com.tema_kuznetsov.task_manager.annotations.userAnnotations.UniqueUserEmail;
 import com.tema_kuznetsov.task_manager.repositories.UserRepository;
+import com.tema_kuznetsov.task_manager.services.UserIdentityRegistry;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * Валидатор для аннотации UniqueUserEmail, проверяет, что email пользователя уникален в системе.
+ * Значения, которых точно нет в {@link UserIdentityRegistry}, принимаются без запроса к базе данных.
  */
 public class UniqueUserEmailValidator implements ConstraintValidator<UniqueUserEmail, String> {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserIdentityRegistry userIdentityRegistry;
+
     /**
      * Проверяет, что email пользователя уникален в системе.
      *
@@ -25,6 +30,9 @@ public class UniqueUserEmailValidator implements ConstraintValidator<UniqueUserE
         if (email == null || email.isBlank()) {
             return true;
         }
+        if (!userIdentityRegistry.mightContainEmail(email)) {
+            return true;
+        }
         return  !userRepository.existsByEmail(email);
     }
 }
\ No newline at end of file
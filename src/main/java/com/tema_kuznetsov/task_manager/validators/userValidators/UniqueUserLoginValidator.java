@@ -2,17 +2,22 @@ package com.tema_kuznetsov.task_manager.validators.userValidators;
 
 import com.tema_kuznetsov.task_manager.annotations.userAnnotations.UniqueUserLogin;
 import com.tema_kuznetsov.task_manager.repositories.UserRepository;
+import com.tema_kuznetsov.task_manager.services.UserIdentityRegistry;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * Валидатор для аннотации UniqueUserLogin, проверяет, что логин пользователя уникален в системе.
+ * Значения, которых точно нет в {@link UserIdentityRegistry}, принимаются без запроса к базе данных.
  */
 public class UniqueUserLoginValidator implements ConstraintValidator<UniqueUserLogin, String> {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserIdentityRegistry userIdentityRegistry;
+
     /**
      * Проверяет, что логин пользователя уникален в системе.
      *
@@ -25,6 +30,9 @@ public class UniqueUserLoginValidator implements ConstraintValidator<UniqueUserL
         if (login == null || login.isBlank()) {
             return true;
         }
+        if (!userIdentityRegistry.mightContainLogin(login)) {
+            return true;
+        }
         return  !userRepository.existsByLogin(login);
     }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.tema_kuznetsov.task_manager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tema_kuznetsov.task_manager.util.concurrency.AdaptiveConcurrencyLimitFilter;
+import com.tema_kuznetsov.task_manager.util.concurrency.AdaptiveConcurrencyLimiter;
+import com.tema_kuznetsov.task_manager.util.concurrency.RequestPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Оценка адаптивного лимита по времени ответа и статусам ответов.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = 1_000_000;
+    private static final long SLOW = 20_000_000;
+
+    private final AdaptiveConcurrencyLimiter limiter =
+            new AdaptiveConcurrencyLimiter(20, 4, 20, 0.9, 0.5, new SimpleMeterRegistry());
+
+    private final AdaptiveConcurrencyLimitFilter filter = new AdaptiveConcurrencyLimitFilter(
+            limiter, new ObjectMapper(), List.of("/api/auth/validate"), List.of("/api/tasks/list/**"), 1);
+
+    @Test
+    void shouldKeepLimitWhenFastAndSlowRequestsHaveSeparateBaselines() {
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire(RequestPriority.CRITICAL);
+            limiter.release(RequestPriority.CRITICAL, FAST, 20, false);
+            limiter.tryAcquire(RequestPriority.NORMAL);
+            limiter.release(RequestPriority.NORMAL, SLOW, 20, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void shouldIgnoreResponsesRejectedBeforeProcessing() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            perform(401, false);
+            perform(429, true);
+            perform(304, false);
+            perform(503, true);
+            perform(200, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(20);
+
+        perform(200, false);
+        perform(500, false);
+        assertThat(limiter.getLimit()).isEqualTo(18);
+    }
+
+    private void perform(int status, boolean retryAfter) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/tasks/1"), response, (req, res) -> {
+            response.setStatus(status);
+            if (retryAfter) {
+                response.setHeader("Retry-After", "1");
+            }
+        });
+    }
+}
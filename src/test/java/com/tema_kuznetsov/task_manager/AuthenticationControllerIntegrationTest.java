@@ -5,18 +5,33 @@ import com.tema_kuznetsov.task_manager.dto.security.JwtRequestDto;
 import com.tema_kuznetsov.task_manager.dto.user.UserCreateDto;
 import com.tema_kuznetsov.task_manager.models.AppUser;
 import com.tema_kuznetsov.task_manager.repositories.UserRepository;
+import com.tema_kuznetsov.task_manager.security.CustomUserDetails;
+import com.tema_kuznetsov.task_manager.security.PasswordHashingExecutor;
 import com.tema_kuznetsov.task_manager.security.jwt.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -41,6 +56,15 @@ class AuthenticationControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private AppUser user;
 
     @BeforeEach
@@ -104,6 +128,23 @@ class AuthenticationControllerIntegrationTest {
                 .andExpect(content().string("true"));
     }
 
+    @Test
+    void shouldRejectForeignPayloadSignedWithCachedSignature() throws Exception {
+        String token = jwtService.generateToken(user.getEmail());
+
+        mockMvc.perform(get("/api/auth/validate")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        String foreignToken = jwtService.generateToken("other@mail.com");
+        String forgedToken = foreignToken.substring(0, foreignToken.lastIndexOf('.'))
+                + token.substring(token.lastIndexOf('.'));
+
+        mockMvc.perform(get("/api/auth/validate")
+                        .header("Authorization", "Bearer " + forgedToken))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     void shouldReturnUnauthorizedWhenValidateTokenWithoutHeader() throws Exception {
         mockMvc.perform(get("/api/auth/validate"))
@@ -161,4 +202,192 @@ class AuthenticationControllerIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Ошибка валидации"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRegisterUserWithSingleInsert() throws Exception {
+        UserCreateDto dto = new UserCreateDto();
+        dto.setEmail("single-insert@mail.com");
+        dto.setPassword("12345678LOL");
+        dto.setLogin("SingleInsert");
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenRegisterUserWithExistingLogin() throws Exception {
+        UserCreateDto dto = new UserCreateDto();
+        dto.setEmail("newuser@mail.com");
+        dto.setPassword("12345678LOL");
+        dto.setLogin("NewUser");
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+
+        dto.setEmail("another@mail.com");
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Ошибка валидации"))
+                .andExpect(jsonPath("$.path").value("login: Пользователь с таким логином уже существует; "));
+    }
+
+    @Test
+    void shouldReturnServiceUnavailableWhenPasswordHashingIsSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            // Сначала занимаем оба потока пула, затем очередь: иначе задачи могут попасть
+            // в очередь раньше, чем их заберут свободные потоки, и часть из них будет отклонена.
+            blockPasswordHashing(callers, release, 2);
+            awaitPasswordHashingGauge("executor.active", 2);
+            blockPasswordHashing(callers, release, 2);
+            awaitPasswordHashingGauge("executor.queued", 2);
+
+            JwtRequestDto request = new JwtRequestDto();
+            request.setEmail("user@mail.com");
+            request.setPassword("12345678LOL");
+
+            mockMvc.perform(post("/api/auth/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            callers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void shouldUpgradeLegacyPasswordHashOnLogin() throws Exception {
+        AppUser legacy = new AppUser();
+        legacy.setEmail("legacy@mail.com");
+        legacy.setPassword(new BCryptPasswordEncoder(4).encode("12345678LOL"));
+        legacy.setLogin("Legacy");
+        legacy.setRole("USER");
+        userRepository.save(legacy);
+        double upgradedBefore = meterRegistry.get("password.hashing.upgraded").counter().count();
+
+        JwtRequestDto loginRequest = new JwtRequestDto();
+        loginRequest.setEmail("legacy@mail.com");
+        loginRequest.setPassword("12345678LOL");
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk());
+
+        entityManager.flush();
+        entityManager.clear();
+        String storedPassword = userRepository.findUserByEmail("legacy@mail.com").orElseThrow().getPassword();
+        assertThat(storedPassword).startsWith("{bcrypt}");
+        assertThat(passwordEncoder.matches("12345678LOL", storedPassword)).isTrue();
+        assertThat(meterRegistry.get("password.hashing.upgraded").counter().count()).isEqualTo(upgradedBefore + 1);
+    }
+
+    @Test
+    void shouldReturnTooManyRequestsWhenRateLimitIsExceeded() throws Exception {
+        mockMvc.perform(get("/api/auth/rate-limit-probe"))
+                .andExpect(header().string("RateLimit-Limit", "2"))
+                .andExpect(header().string("RateLimit-Remaining", "1"));
+        mockMvc.perform(get("/api/auth/rate-limit-probe"))
+                .andExpect(header().string("RateLimit-Remaining", "0"));
+
+        mockMvc.perform(get("/api/auth/rate-limit-probe"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.message").value("Слишком много запросов, повторите позже"));
+    }
+
+    @Test
+    void shouldCountPrincipalRateLimitPerUser() throws Exception {
+        String firstToken = "Bearer " + jwtService.generateToken("first-limited@mail.com");
+        String secondToken = "Bearer " + jwtService.generateToken("second-limited@mail.com");
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/rate-limit-principal-probe").header("Authorization", firstToken))
+                    .andExpect(header().string("RateLimit-Remaining", String.valueOf(1 - i)));
+        }
+        mockMvc.perform(get("/api/rate-limit-principal-probe").header("Authorization", firstToken))
+                .andExpect(status().isTooManyRequests());
+
+        // Запросы идут с того же IP-адреса, но второй пользователь расходует свой бюджет
+        mockMvc.perform(get("/api/rate-limit-principal-probe").header("Authorization", secondToken))
+                .andExpect(header().string("RateLimit-Remaining", "1"));
+    }
+
+    @Test
+    void shouldKeepPrincipalRateLimitAfterEmailChange() throws Exception {
+        String oldEmailToken = "Bearer " + jwtService.generateToken(new CustomUserDetails(
+                4242L, "old-limited@mail.com", "USER", 0, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        String newEmailToken = "Bearer " + jwtService.generateToken(new CustomUserDetails(
+                4242L, "new-limited@mail.com", "USER", 0, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        mockMvc.perform(get("/api/rate-limit-principal-probe").header("Authorization", oldEmailToken))
+                .andExpect(header().string("RateLimit-Remaining", "1"));
+        mockMvc.perform(get("/api/rate-limit-principal-probe").header("Authorization", newEmailToken))
+                .andExpect(header().string("RateLimit-Remaining", "0"));
+    }
+
+    @Test
+    void shouldExposeHealthEndpointWithoutToken() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+    }
+
+    @Test
+    void shouldExposePrometheusEndpointOnlyToAdmin() throws Exception {
+        AppUser admin = new AppUser();
+        admin.setEmail("admin@mail.com");
+        admin.setPassword(passwordEncoder.encode("12345678LOL"));
+        admin.setLogin("Admin");
+        admin.setRole("ADMIN");
+        userRepository.save(admin);
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(user.getEmail())))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(admin.getEmail())))
+                .andExpect(status().isOk());
+    }
+
+    private void blockPasswordHashing(ExecutorService callers, CountDownLatch release, int count) {
+        for (int i = 0; i < count; i++) {
+            callers.submit(() -> passwordHashingExecutor.execute("test", () -> {
+                try {
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }));
+        }
+    }
+
+    private void awaitPasswordHashingGauge(String name, double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get(name).tag("name", "password.hashing").gauge().value() < expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
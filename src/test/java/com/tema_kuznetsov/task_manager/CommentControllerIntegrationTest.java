@@ -4,11 +4,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tema_kuznetsov.task_manager.dto.comment.CommentCreateDto;
 import com.tema_kuznetsov.task_manager.dto.comment.CommentUpdateDto;
 import com.tema_kuznetsov.task_manager.models.AppUser;
+import com.tema_kuznetsov.task_manager.models.Comment;
 import com.tema_kuznetsov.task_manager.models.Task;
 import com.tema_kuznetsov.task_manager.repositories.CommentRepository;
 import com.tema_kuznetsov.task_manager.repositories.TaskRepository;
 import com.tema_kuznetsov.task_manager.repositories.UserRepository;
 import com.tema_kuznetsov.task_manager.security.jwt.JwtService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +21,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -46,6 +49,9 @@ class CommentControllerIntegrationTest {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private Task task;
     private String adminToken;
     private String userToken;
@@ -157,6 +163,53 @@ class CommentControllerIntegrationTest {
                 .andExpect(jsonPath("$.text").value("Отличная задача!"));
     }
 
+    @Test
+    void shouldAnswerNotModifiedForUnchangedComment() throws Exception {
+
+        CommentCreateDto dto = new CommentCreateDto();
+        dto.setText("Комментарий для условных запросов");
+        dto.setTask_id(task.getId());
+
+        String response = mockMvc.perform(post("/api/comments/create")
+                        .header("Authorization", adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        long commentId = objectMapper.readTree(response).get("id").asLong();
+
+        String etag = mockMvc.perform(get("/api/comments/" + commentId)
+                        .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isEqualTo("\"comment-" + commentId + "-v0\"");
+
+        mockMvc.perform(get("/api/comments/" + commentId)
+                        .header("Authorization", adminToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        CommentUpdateDto updateDto = new CommentUpdateDto();
+        updateDto.setText("Измененный комментарий");
+
+        mockMvc.perform(patch("/api/comments/" + commentId)
+                        .header("Authorization", adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/comments/" + commentId)
+                        .header("Authorization", adminToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"comment-" + commentId + "-v1\""))
+                .andExpect(jsonPath("$.text").value("Измененный комментарий"));
+    }
+
     @Test
     void shouldReturnNotFoundWhenCommentByIdDoesNotExist() throws Exception {
         mockMvc.perform(get("/api/comments/999999")
@@ -276,4 +329,119 @@ class CommentControllerIntegrationTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Некорректный идентификатор"));
     }
+
+    @Test
+    void shouldListTaskCommentsWithinStatementBudget() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            Comment comment = new Comment();
+            comment.setText("Комментарий " + i);
+            comment.setAuthor(task.getOwner());
+            comment.setTask(task);
+            commentRepository.save(comment);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        try (StatementBudget budget = StatementBudget.start()) {
+            mockMvc.perform(get("/api/tasks/" + task.getId() + "/comments")
+                            .header("Authorization", adminToken)
+                            .param("size", "20"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(20));
+
+            budget.assertNoRepeatedStatements();
+            budget.assertAtMost(4);
+        }
+    }
+
+    @Test
+    void shouldRejectCommentUpdateWithStaleIfMatch() throws Exception {
+        CommentCreateDto dto = new CommentCreateDto();
+        dto.setText("Комментарий с версией");
+        dto.setTask_id(task.getId());
+
+        String response = mockMvc.perform(post("/api/comments/create")
+                        .header("Authorization", adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        long commentId = objectMapper.readTree(response).get("id").asLong();
+        String etag = mockMvc.perform(get("/api/comments/" + commentId)
+                        .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        CommentUpdateDto updateDto = new CommentUpdateDto();
+        updateDto.setText("Первое изменение");
+
+        mockMvc.perform(patch("/api/comments/" + commentId)
+                        .header("Authorization", adminToken)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"comment-" + commentId + "-v1\""));
+
+        updateDto.setText("Изменение устаревшей версии");
+
+        mockMvc.perform(patch("/api/comments/" + commentId)
+                        .header("Authorization", adminToken)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/comments/" + commentId)
+                        .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.text").value("Первое изменение"));
+    }
+
+    @Test
+    void shouldRejectIfMatchCommentUpdateWhenChangedBetweenReadAndWrite() throws Exception {
+        Comment comment = new Comment();
+        comment.setText("Комментарий с параллельным изменением");
+        comment.setTask(task);
+        comment.setAuthor(task.getOwner());
+        commentRepository.saveAndFlush(comment);
+
+        // Другая транзакция увеличивает версию в базе, а загруженная сущность остается в версии 0
+        entityManager.createNativeQuery("UPDATE comments SET version = version + 1 WHERE id = :id")
+                .setParameter("id", comment.getId())
+                .executeUpdate();
+
+        CommentUpdateDto updateDto = new CommentUpdateDto();
+        updateDto.setText("Изменение по версии 0");
+
+        mockMvc.perform(patch("/api/comments/" + comment.getId())
+                        .header("Authorization", adminToken)
+                        .header("If-Match", "\"comment-" + comment.getId() + "-v0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void shouldAnswerConflictWhenCommentChangedBetweenReadAndWrite() throws Exception {
+        Comment comment = new Comment();
+        comment.setText("Комментарий с параллельным изменением");
+        comment.setTask(task);
+        comment.setAuthor(task.getOwner());
+        commentRepository.saveAndFlush(comment);
+
+        entityManager.createNativeQuery("UPDATE comments SET version = version + 1 WHERE id = :id")
+                .setParameter("id", comment.getId())
+                .executeUpdate();
+
+        CommentUpdateDto updateDto = new CommentUpdateDto();
+        updateDto.setText("Безусловное изменение");
+
+        mockMvc.perform(patch("/api/comments/" + comment.getId())
+                        .header("Authorization", adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDto)))
+                .andExpect(status().isConflict());
+    }
 }
@@ -0,0 +1,40 @@
+package com.tema_kuznetsov.task_manager;
+
+import com.tema_kuznetsov.task_manager.repositories.TaskRepository;
+import com.tema_kuznetsov.task_manager.services.search.InMemoryTaskSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Откат изменений поискового индекса в памяти вместе с транзакцией.
+ */
+class InMemoryTaskSearchIndexTest {
+
+    private final InMemoryTaskSearchIndex index = new InMemoryTaskSearchIndex(mock(TaskRepository.class));
+
+    @Test
+    void shouldRestorePreviousDocumentWhenTransactionRollsBack() {
+        index.index(1L, "Квартальный отчет", "Свести цифры");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.index(1L, "Подготовка к релизу", "Без отчета");
+            index.index(2L, "Новый отчет", "Свести цифры");
+
+            assertThat(index.search("релиз", 10)).containsExactly(1L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(index.search("релиз", 10)).isEmpty();
+        assertThat(index.search("квартальный", 10)).containsExactly(1L);
+        assertThat(index.search("новый", 10)).isEmpty();
+    }
+}
@@ -0,0 +1,46 @@
+package com.tema_kuznetsov.task_manager;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Замена функций {@code pg_trgm} для H2, чтобы нативные запросы поиска PostgreSQL
+ * выполнялись в тестах. Функции регистрируются в {@code h2-pg-functions.sql}.
+ */
+public final class PgTrgmFunctions {
+
+    private PgTrgmFunctions() {
+    }
+
+    /**
+     * Упрощенный {@code word_similarity}: доля триграмм слов запроса, найденных среди триграмм слов текста.
+     *
+     * @param query строка запроса
+     * @param text текст задачи, может быть null
+     * @return близость от 0 до 1
+     */
+    public static double wordSimilarity(String query, String text) {
+        if (query == null || text == null) {
+            return 0;
+        }
+        Set<String> queryTrigrams = trigrams(query);
+        if (queryTrigrams.isEmpty()) {
+            return 0;
+        }
+        Set<String> textTrigrams = trigrams(text);
+        long matched = queryTrigrams.stream().filter(textTrigrams::contains).count();
+        return (double) matched / queryTrigrams.size();
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> result = new HashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).trim().split("\\s+")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; !word.isEmpty() && i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+}
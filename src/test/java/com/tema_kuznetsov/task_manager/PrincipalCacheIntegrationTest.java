@@ -0,0 +1,103 @@
+package com.tema_kuznetsov.task_manager;
+
+import com.tema_kuznetsov.task_manager.models.AppUser;
+import com.tema_kuznetsov.task_manager.repositories.UserRepository;
+import com.tema_kuznetsov.task_manager.security.jwt.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Проверяет, что изменения пользователя видны следующему запросу при включенном кеше пользователей.
+ * Токены выпускаются без claims пользователя, поэтому каждый запрос берет роль из кеша.
+ * Каждый тест использует свои email, чтобы записи кеша не пересекались между откатанными тестами.
+ * Отдельный контекст работает с отдельной базой H2, чтобы не пересоздавать схему базы остальных тестов.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:principal_cache;DB_CLOSE_DELAY=-1",
+        "security.principal-cache.enabled=true",
+        "jwt.stateless.enabled=false"
+})
+class PrincipalCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private AppUser admin;
+
+    @BeforeEach
+    void setUp() {
+        admin = new AppUser();
+        admin.setEmail("cache-admin@mail.com");
+        admin.setPassword("12345678LOL");
+        admin.setLogin("CacheAdmin");
+        admin.setRole("ADMIN");
+        userRepository.save(admin);
+    }
+
+    @Test
+    void shouldApplyRoleChangeOnNextRequest() throws Exception {
+        AppUser user = createUser("cache-role@mail.com", "CacheRole");
+        String userToken = "Bearer " + jwtService.generateToken(user.getEmail());
+
+        mockMvc.perform(get("/api/users/list")
+                        .header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(patch("/api/users/" + user.getId() + "/role")
+                        .param("role", "ADMIN")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(admin.getEmail())))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/list")
+                        .header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldRejectDeletedUserOnNextRequest() throws Exception {
+        AppUser user = createUser("cache-deleted@mail.com", "CacheDeleted");
+        String userToken = "Bearer " + jwtService.generateToken(user.getEmail());
+
+        mockMvc.perform(get("/api/users/me")
+                        .header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/users/" + user.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(admin.getEmail())))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users/me")
+                        .header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private AppUser createUser(String email, String login) {
+        AppUser user = new AppUser();
+        user.setEmail(email);
+        user.setPassword("12345678LOL");
+        user.setLogin(login);
+        user.setRole("USER");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,75 @@
+package com.tema_kuznetsov.task_manager;
+
+import com.tema_kuznetsov.task_manager.util.sql.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Маршрутизация чтений на двух базах H2, выступающих основной базой и репликой.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldRouteReadOnlyTransactionsToReplicaExceptRightAfterUsersWrite() {
+        DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1", "sa", "");
+        DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1", "sa", "");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primary, Map.of("replica-0", replica), Duration.ofHours(1), new SimpleMeterRegistry()));
+
+        assertThat(currentDatabase(dataSource, true)).isEqualTo("ROUTING_REPLICA");
+        assertThat(currentDatabase(dataSource, false)).isEqualTo("ROUTING_PRIMARY");
+
+        authenticate("writer@mail.com");
+        assertThat(currentDatabase(dataSource, false)).isEqualTo("ROUTING_PRIMARY");
+        assertThat(currentDatabase(dataSource, true)).isEqualTo("ROUTING_PRIMARY");
+
+        authenticate("reader@mail.com");
+        assertThat(currentDatabase(dataSource, true)).isEqualTo("ROUTING_REPLICA");
+    }
+
+    @Test
+    void shouldFailOverReadsToPrimaryWhenReplicaIsUnavailable() {
+        DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:failover_primary;DB_CLOSE_DELAY=-1", "sa", "");
+        DataSource replica = new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/failover_replica", "sa", "");
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                primary, Map.of("replica-0", replica), Duration.ofHours(1), new SimpleMeterRegistry());
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        assertThat(currentDatabase(dataSource, true)).isEqualTo("FAILOVER_PRIMARY");
+
+        routing.checkReplicas();
+        assertThat(currentDatabase(dataSource, true)).isEqualTo("FAILOVER_PRIMARY");
+    }
+
+    private static void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    private static String currentDatabase(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT DATABASE()", String.class));
+    }
+}
@@ -0,0 +1,119 @@
+package com.tema_kuznetsov.task_manager;
+
+import com.tema_kuznetsov.task_manager.models.AppUser;
+import com.tema_kuznetsov.task_manager.models.Task;
+import com.tema_kuznetsov.task_manager.repositories.TaskRepository;
+import com.tema_kuznetsov.task_manager.repositories.UserRepository;
+import com.tema_kuznetsov.task_manager.services.TaskResponseCache;
+import com.tema_kuznetsov.task_manager.services.TaskService;
+import com.tema_kuznetsov.task_manager.util.sql.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Маршрутизация JPA-транзакций в контексте приложения с включенными репликами:
+ * основная база и реплика — отдельные базы H2 в памяти. Основная база не совпадает с базой остальных
+ * тестов: собственный контекст пересоздал бы ее схему и сбросил последовательности идентификаторов.
+ * Схема создается только в основной базе, поэтому чтение таблиц с реплики завершилось бы ошибкой.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica_primary;DB_CLOSE_DELAY=-1",
+        "datasource.replicas.enabled=true",
+        "datasource.replicas.instances[0].url=jdbc:h2:mem:replica_context;DB_CLOSE_DELAY=-1",
+        "datasource.replicas.instances[0].username=sa",
+        "datasource.replicas.instances[0].password="
+})
+class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskResponseCache taskResponseCache;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldRouteReadOnlyJpaTransactionsToReplicaAndWritesToPrimary() throws Exception {
+        assertThat(dataSource.unwrap(ReplicaRoutingDataSource.class)).isNotNull();
+        assertThat(transactionManager).isInstanceOf(JpaTransactionManager.class);
+
+        assertThat(currentDatabase(true)).isEqualTo("REPLICA_CONTEXT");
+        assertThat(currentDatabase(false)).isEqualTo("REPLICA_PRIMARY");
+    }
+
+    @Test
+    void shouldLoadTaskResponseCacheFromPrimary() {
+        Task task = new TransactionTemplate(transactionManager).execute(status -> {
+            AppUser owner = new AppUser();
+            owner.setEmail("replica-owner@mail.com");
+            owner.setPassword("12345678LOL");
+            owner.setLogin("ReplicaOwner");
+            owner.setRole("ADMIN");
+            userRepository.save(owner);
+
+            Task created = new Task();
+            created.setTitle("Задача для кеша ответов с репликой");
+            created.setStatus("OPEN");
+            created.setPriority("LOW");
+            created.setOwner(owner);
+            return taskRepository.save(created);
+        });
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        taskResponseCache.evictAll();
+        double replicaConnections = routed("replica");
+
+        try {
+            TaskResponseCache.CachedTask cached = taskResponseCache.get(task.getId(), taskService::findTaskById);
+
+            assertThat(new String(cached.json(), StandardCharsets.UTF_8)).contains(task.getTitle());
+            assertThat(routed("replica")).isEqualTo(replicaConnections);
+        } finally {
+            taskResponseCache.evictAll();
+            taskRepository.deleteAllInBatch();
+            userRepository.deleteAllInBatch();
+        }
+    }
+
+    private double routed(String target) {
+        return meterRegistry.get("datasource.routed").tag("target", target).counter().count();
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                (String) entityManager.createNativeQuery("SELECT DATABASE()").getSingleResult());
+    }
+}
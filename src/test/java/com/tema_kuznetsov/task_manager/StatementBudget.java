@@ -0,0 +1,48 @@
+package com.tema_kuznetsov.task_manager;
+
+import com.tema_kuznetsov.task_manager.util.sql.QueryStats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ограничение числа SQL-запросов в интеграционных тестах.
+ * Учитывает все запросы текущего потока, включая выполненные внутри MockMvc-запросов:
+ * <pre>{@code
+ * try (StatementBudget budget = StatementBudget.start()) {
+ *     mockMvc.perform(get("/api/tasks/list"));
+ *     budget.assertAtMost(3);
+ * }
+ * }</pre>
+ */
+final class StatementBudget implements AutoCloseable {
+
+    private final QueryStats stats = QueryStats.open();
+
+    private StatementBudget() {
+    }
+
+    static StatementBudget start() {
+        return new StatementBudget();
+    }
+
+    int getStatementCount() {
+        return stats.getStatementCount();
+    }
+
+    void assertAtMost(int maxStatements) {
+        assertThat(stats.getStatementCount())
+                .as("Количество SQL-запросов")
+                .isLessThanOrEqualTo(maxStatements);
+    }
+
+    void assertNoRepeatedStatements() {
+        assertThat(stats.getRepeatedShapes())
+                .as("SQL-запросы, повторенные больше допустимого числа раз (N+1)")
+                .isEmpty();
+    }
+
+    @Override
+    public void close() {
+        stats.close();
+    }
+}
@@ -0,0 +1,36 @@
+package com.tema_kuznetsov.task_manager;
+
+import com.tema_kuznetsov.task_manager.services.TaskChangeHistory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Слияние условных обновлений задачи с устаревшей версией по истории измененных полей.
+ */
+class TaskChangeHistoryTest {
+
+    private final TaskChangeHistory history =
+            new TaskChangeHistory(true, 100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+
+    @Test
+    void shouldMergeOnlyNonOverlappingChangesWithKnownHistory() {
+        history.record(1L, 1, Set.of("status"));
+        history.record(1L, 2, Set.of("performerId"));
+
+        assertThat(history.canMerge(1L, 0, 2, Set.of("priority", "description"))).isTrue();
+        assertThat(history.canMerge(1L, 1, 2, Set.of("status"))).isTrue();
+        assertThat(history.canMerge(1L, 0, 2, Set.of("priority", "status"))).isFalse();
+        assertThat(history.canMerge(1L, 0, 3, Set.of("priority"))).isFalse();
+        assertThat(history.canMerge(2L, 0, 1, Set.of("priority"))).isFalse();
+
+        history.forget(List.of(1L));
+
+        assertThat(history.canMerge(1L, 0, 2, Set.of("priority"))).isFalse();
+    }
+}
@@ -4,18 +4,44 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tema_kuznetsov.task_manager.dto.task.TaskCreateDto;
 import com.tema_kuznetsov.task_manager.dto.task.TaskUpdateDto;
 import com.tema_kuznetsov.task_manager.models.AppUser;
+import com.tema_kuznetsov.task_manager.models.Task;
+import com.tema_kuznetsov.task_manager.repositories.TaskRepository;
 import com.tema_kuznetsov.task_manager.repositories.UserRepository;
+import com.tema_kuznetsov.task_manager.security.CustomUserDetails;
 import com.tema_kuznetsov.task_manager.security.jwt.JwtService;
+import com.tema_kuznetsov.task_manager.services.TaskResponseCache;
+import com.tema_kuznetsov.task_manager.services.TaskTitleRegistry;
+import com.tema_kuznetsov.task_manager.services.search.PostgresTaskSearchIndex;
+import com.tema_kuznetsov.task_manager.services.search.TaskSearchIndex;
+import com.tema_kuznetsov.task_manager.util.concurrency.BoundedDataSource;
+import com.tema_kuznetsov.task_manager.util.sql.QueryStats;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -37,13 +63,38 @@ class TaskControllerIntegrationTest {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private TaskTitleRegistry taskTitleRegistry;
+
+    @Autowired
+    private TaskResponseCache taskResponseCache;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    private AppUser owner;
     private AppUser performer;
     private String ownerToken;
 
     @BeforeEach
     void setUp() {
 
-        AppUser owner = new AppUser();
+        owner = new AppUser();
         owner.setEmail("owner@mail.com");
         owner.setPassword("12345678LOL");
         owner.setLogin("Owner");
@@ -530,6 +581,56 @@ class TaskControllerIntegrationTest {
                 .andExpect(jsonPath("$.message").value("Доступ запрещен. У вас нет прав на выполнение этого действия."));
     }
 
+    @Test
+    void shouldAllowPerformerToUpdateTaskStatus() throws Exception {
+        TaskCreateDto dto = new TaskCreateDto();
+        dto.setTitle("Тестовая задача");
+        dto.setDescription("Описание задачи");
+        dto.setStatus("IN_PROGRESS");
+        dto.setPriority("LOW");
+        dto.setPerformerId(performer.getId());
+
+        String response = mockMvc.perform(post("/api/tasks/create")
+                        .header("Authorization", ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        Long taskId = objectMapper.readTree(response).get("id").asLong();
+        String performerToken = "Bearer " + jwtService.generateToken(performer.getEmail());
+
+        mockMvc.perform(patch("/api/tasks/" + taskId + "/status")
+                        .header("Authorization", performerToken)
+                        .param("status", "COMPLETED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    @Test
+    void shouldReturnForbiddenWhenUpdatingStatusOfTaskWithoutPerformer() throws Exception {
+        TaskCreateDto dto = new TaskCreateDto();
+        dto.setTitle("Тестовая задача");
+        dto.setDescription("Описание задачи");
+        dto.setStatus("IN_PROGRESS");
+        dto.setPriority("LOW");
+
+        String response = mockMvc.perform(post("/api/tasks/create")
+                        .header("Authorization", ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        Long taskId = objectMapper.readTree(response).get("id").asLong();
+        String performerToken = "Bearer " + jwtService.generateToken(performer.getEmail());
+
+        mockMvc.perform(patch("/api/tasks/" + taskId + "/status")
+                        .header("Authorization", performerToken)
+                        .param("status", "COMPLETED"))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void shouldReturnForbiddenWhenUserTriesToUpdateTaskPriorityWithoutPermission() throws Exception {
 
@@ -734,6 +835,38 @@ class TaskControllerIntegrationTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void shouldForgetOnlyTaskDeletedByTitle() throws Exception {
+        Task deleted = new Task();
+        deleted.setTitle("Задача для удаления по названию");
+        deleted.setStatus("OPEN");
+        deleted.setPriority("LOW");
+        deleted.setOwner(owner);
+        taskRepository.save(deleted);
+        taskSearchIndex.index(deleted.getId(), deleted.getTitle(), null);
+
+        Task kept = new Task();
+        kept.setTitle("Соседняя задача");
+        kept.setStatus("OPEN");
+        kept.setPriority("LOW");
+        kept.setOwner(owner);
+        taskRepository.save(kept);
+
+        for (Task task : List.of(deleted, kept)) {
+            mockMvc.perform(get("/api/tasks/" + task.getId())
+                            .header("Authorization", ownerToken))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(delete("/api/tasks/by-title/" + deleted.getTitle())
+                        .header("Authorization", ownerToken))
+                .andExpect(status().isNoContent());
+
+        assertThat(taskResponseCache.getIfPresent(deleted.getId())).isNull();
+        assertThat(taskResponseCache.getIfPresent(kept.getId())).isNotNull();
+        assertThat(taskSearchIndex.search("удаления", 10)).doesNotContain(deleted.getId());
+    }
+
     @Test
     void shouldReturnForbiddenWhenUserTriesToDeleteTaskByTitleWithoutPermission() throws Exception {
 
@@ -765,4 +898,670 @@ class TaskControllerIntegrationTest {
                 .andExpect(status().isForbidden())
                 .andExpect(jsonPath("$.message").value("Доступ запрещен. У вас нет прав на выполнение этого действия."));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldListTaskPageWithOneSelectAndOneCount() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            Task task = new Task();
+            task.setTitle("Задача " + i);
+            task.setStatus("OPEN");
+            task.setPriority("LOW");
+            task.setOwner(owner);
+            task.setPerformer(performer);
+            taskRepository.save(task);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        String statelessToken = "Bearer " + jwtService.generateToken(new CustomUserDetails(owner,
+                List.of(new SimpleGrantedAuthority("ROLE_" + owner.getRole()))));
+        mockMvc.perform(get("/api/tasks/list")
+                        .header("Authorization", statelessToken))
+                .andExpect(status().isOk());
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/tasks/list")
+                        .header("Authorization", statelessToken)
+                        .param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(50))
+                .andExpect(jsonPath("$.content[0].performerId").value(performer.getId()));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldWalkAllTasksByCursorWithoutGapsOrDuplicates() throws Exception {
+        List<Long> createdIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Task task = new Task();
+            task.setTitle("Задача " + i);
+            task.setStatus("OPEN");
+            task.setPriority("LOW");
+            task.setOwner(owner);
+            createdIds.add(taskRepository.save(task).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> receivedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/api/tasks/search/status/cursor")
+                    .header("Authorization", ownerToken)
+                    .param("status", "OPEN")
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("after", cursor);
+            }
+            String response = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andReturn().getResponse().getContentAsString();
+
+            var body = objectMapper.readTree(response);
+            body.get("content").forEach(task -> receivedIds.add(task.get("id").asLong()));
+            cursor = body.hasNonNull("nextCursor") ? body.get("nextCursor").asText() : null;
+        } while (cursor != null);
+
+        assertThat(receivedIds).containsExactlyInAnyOrderElementsOf(createdIds);
+    }
+
+    @Test
+    void shouldReturnBadRequestForInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/tasks/list/cursor")
+                        .header("Authorization", ownerToken)
+                        .param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Некорректный курсор"));
+    }
+
+    @Test
+    void shouldRankTitleMatchesAboveDescriptionMatches() throws Exception {
+        String[][] tasks = {
+                {"Подготовка к релизу", "Собрать квартальный отчет для команды"},
+                {"Квартальный отчет", "Свести цифры"},
+                {"Обновить зависимости", "Без связи с поиском"}
+        };
+        for (String[] fields : tasks) {
+            TaskCreateDto dto = new TaskCreateDto();
+            dto.setTitle(fields[0]);
+            dto.setDescription(fields[1]);
+            dto.setStatus("OPEN");
+            dto.setPriority("LOW");
+
+            mockMvc.perform(post("/api/tasks/create")
+                            .header("Authorization", ownerToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(get("/api/tasks/search/ranked")
+                        .header("Authorization", ownerToken)
+                        .param("query", "ОТЧЕТ"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].title").value("Квартальный отчет"))
+                .andExpect(jsonPath("$[1].title").value("Подготовка к релизу"));
+    }
+
+    @Test
+    void shouldRankPostgresSearchByTitleAndEscapeLikePattern() {
+        String[][] fields = {
+                {"Подготовка к релизу", "Собрать квартальный отчет для команды"},
+                {"Квартальный отчет", "Свести цифры"},
+                {"Скидка 100%", "Акция"},
+                {"Скидка 1000", "Акция"}
+        };
+        List<Long> ids = new ArrayList<>();
+        for (String[] field : fields) {
+            Task task = new Task();
+            task.setTitle(field[0]);
+            task.setDescription(field[1]);
+            task.setStatus("OPEN");
+            task.setPriority("LOW");
+            task.setOwner(owner);
+            ids.add(taskRepository.save(task).getId());
+        }
+        taskRepository.flush();
+
+        PostgresTaskSearchIndex index = new PostgresTaskSearchIndex(taskRepository);
+
+        assertThat(index.search("ОТЧЕТ", 10)).containsExactly(ids.get(1), ids.get(0));
+        assertThat(index.search("100%", 10)).containsExactly(ids.get(2));
+        assertThat(index.search("скидка", 1)).hasSize(1);
+    }
+
+    @Test
+    void shouldCreateTasksInBulkAndRejectInvalidItems() throws Exception {
+        String body = """
+                [
+                  {"title": "Пакетная задача 1", "description": "Описание задачи", "status": "OPEN",
+                   "priority": "LOW", "performerId": %d},
+                  {"title": "Пакетная задача 2", "description": "Описание задачи", "status": "OPEN",
+                   "priority": "LOW", "performerId": 999999},
+                  {"title": "Пакетная задача 1", "description": "Описание задачи", "status": "OPEN",
+                   "priority": "LOW"},
+                  {"title": "Пакетная задача 3", "description": "Описание задачи", "status": "DONE",
+                   "priority": "LOW"}
+                ]
+                """.formatted(performer.getId());
+
+        String response = mockMvc.perform(post("/api/tasks/bulk")
+                        .header("Authorization", ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$[1].errors[0]").value("performerId: Исполнитель с id 999999 не найден"))
+                .andExpect(jsonPath("$[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$[3].status").value("REJECTED"))
+                .andReturn().getResponse().getContentAsString();
+
+        long taskId = objectMapper.readTree(response).get(0).get("id").asLong();
+        mockMvc.perform(get("/api/tasks/" + taskId)
+                        .header("Authorization", ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.performerId").value(performer.getId()));
+    }
+
+    @Test
+    void shouldCreateTasksInBulkFromNdjson() throws Exception {
+        String body = """
+                {"title": "Задача из потока 1", "description": "Описание задачи", "status": "OPEN", "priority": "LOW"}
+                {"title": "Задача из потока 2", "description": "Описание задачи", "status": "OPEN", "priority": "HIGH"}
+                """;
+
+        mockMvc.perform(post("/api/tasks/bulk")
+                        .header("Authorization", ownerToken)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("CREATED"));
+    }
+
+    @Test
+    void shouldCheckBulkTitlesAgainstDatabaseWithSingleQuery() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 4; i++) {
+            Task task = new Task();
+            task.setTitle("Занятая задача " + i);
+            task.setStatus("OPEN");
+            task.setPriority("LOW");
+            task.setOwner(owner);
+            taskRepository.save(task);
+            taskTitleRegistry.register(task.getTitle());
+            body.append("""
+                    {"title": "занятая задача %d", "description": "Описание задачи", "status": "OPEN", "priority": "LOW"}
+                    """.formatted(i));
+        }
+        taskRepository.flush();
+
+        try (StatementBudget budget = StatementBudget.start()) {
+            mockMvc.perform(post("/api/tasks/bulk")
+                            .header("Authorization", ownerToken)
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content(body.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(4))
+                    .andExpect(jsonPath("$[*].status", Matchers.everyItem(Matchers.is("REJECTED"))))
+                    .andExpect(jsonPath("$[0].errors[0]").value("title: Задача с таким названием уже существует"));
+
+            budget.assertAtMost(1);
+        }
+    }
+
+    @Test
+    void shouldRejectBulkLargerThanLimitWhileReading() throws Exception {
+        String item = "{\"title\": \"Задача сверх лимита %d\", \"status\": \"OPEN\", \"priority\": \"LOW\"}";
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 1; i <= 6; i++) {
+            body.append(i > 1 ? "," : "").append(item.formatted(i));
+        }
+        // Тело обрывается после лимита: чтение должно остановиться раньше, чем парсер дойдет до ошибки
+        body.append(",{\"title\": ");
+
+        mockMvc.perform(post("/api/tasks/bulk")
+                        .header("Authorization", ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.path").value("За один запрос можно создать не более 5 задач"));
+    }
+
+    @Test
+    void shouldBulkUpdateOnlyTasksOwnedByCaller() throws Exception {
+        AppUser user = new AppUser();
+        user.setEmail("user@mail.com");
+        user.setPassword("12345678LOL");
+        user.setLogin("User");
+        user.setRole("USER");
+        userRepository.save(user);
+        String userToken = "Bearer " + jwtService.generateToken(user.getEmail());
+
+        List<Long> ids = new ArrayList<>();
+        for (String token : List.of(userToken, userToken, ownerToken)) {
+            TaskCreateDto dto = new TaskCreateDto();
+            dto.setTitle("Задача " + ids.size());
+            dto.setDescription("Описание задачи");
+            dto.setStatus("OPEN");
+            dto.setPriority("LOW");
+
+            String response = mockMvc.perform(post("/api/tasks/create")
+                            .header("Authorization", token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            ids.add(objectMapper.readTree(response).get("id").asLong());
+        }
+
+        String body = """
+                {"ids": [%d, %d, %d, 999999], "status": "COMPLETED", "performerId": %d}
+                """.formatted(ids.get(0), ids.get(1), ids.get(2), performer.getId());
+
+        mockMvc.perform(patch("/api/tasks/bulk")
+                        .header("Authorization", userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(4))
+                .andExpect(jsonPath("$.updated").value(2));
+
+        assertThat(taskRepository.findById(ids.get(0)).orElseThrow().getStatus()).isEqualTo("COMPLETED");
+        assertThat(taskRepository.findById(ids.get(1)).orElseThrow().getPerformerId()).isEqualTo(performer.getId());
+        assertThat(taskRepository.findById(ids.get(2)).orElseThrow().getStatus()).isEqualTo("OPEN");
+
+        mockMvc.perform(patch("/api/tasks/bulk")
+                        .header("Authorization", ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(3));
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenBulkUpdateHasNoChanges() throws Exception {
+        mockMvc.perform(patch("/api/tasks/bulk")
+                        .header("Authorization", ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [1]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRejectTitleDifferingOnlyByCaseAndSpaces() throws Exception {
+        TaskCreateDto dto = new TaskCreateDto();
+        dto.setTitle("Тестовая задача");
+        dto.setDescription("Описание задачи");
+        dto.setStatus("OPEN");
+        dto.setPriority("LOW");
+
+        mockMvc.perform(post("/api/tasks/create")
+                        .header("Authorization", ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+
+        dto.setTitle("  ТЕСТОВАЯ   задача ");
+        mockMvc.perform(post("/api/tasks/create")
+                        .header("Authorization", ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Ошибка валидации"))
+                .andExpect(jsonPath("$.path").value(Matchers.containsString("Задача с таким названием уже существует")));
+
+        mockMvc.perform(get("/api/tasks/search/exact")
+                        .param("title", "тестовая задача")
+                        .header("Authorization", ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Тестовая задача"));
+    }
+
+    @Test
+    void shouldTranslateTitleUniqueViolationToValidationError() throws Exception {
+        Task existing = new Task();
+        existing.setTitle("Задача мимо реестра");
+        existing.setDescription("Описание задачи");
+        existing.setStatus("OPEN");
+        existing.setPriority("LOW");
+        existing.setOwner(owner);
+        taskRepository.saveAndFlush(existing);
+
+        TaskCreateDto dto = new TaskCreateDto();
+        dto.setTitle("задача мимо реестра");
+        dto.setDescription("Описание задачи");
+        dto.setStatus("OPEN");
+        dto.setPriority("LOW");
+
+        mockMvc.perform(post("/api/tasks/create")
+                        .header("Authorization", ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Ошибка валидации"))
+                .andExpect(jsonPath("$.path").value("title: Задача с таким названием уже существует; "));
+    }
+
+    @Test
+    void shouldRecordServiceAndRepositoryTimersTaggedByEndpoint() throws Exception {
+        TaskCreateDto dto = new TaskCreateDto();
+        dto.setTitle("Задача с метриками");
+        dto.setDescription("Описание задачи");
+        dto.setStatus("IN_PROGRESS");
+        dto.setPriority("LOW");
+        dto.setPerformerId(performer.getId());
+
+        mockMvc.perform(post("/api/tasks/create")
+                        .header("Authorization", ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+
+        assertThat(meterRegistry.get("service.invocations")
+                .tag("class", "TaskService")
+                .tag("method", "createTask")
+                .tag("endpoint", "/api/tasks/create")
+                .tag("outcome", "SUCCESS")
+                .timer().count()).isPositive();
+        assertThat(meterRegistry.get("spring.data.repository.invocations")
+                .tag("repository", "TaskRepository")
+                .tag("endpoint", "/api/tasks/create")
+                .timers()).isNotEmpty();
+        assertThat(meterRegistry.get("jwt.verification").tag("outcome", "verified").timer().count()).isPositive();
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "verified-tokens").functionCounters()).isNotEmpty();
+    }
+
+    @Test
+    void shouldReturnConnectionPermitWhenConnectionIsClosed() throws Exception {
+        BoundedDataSource boundedDataSource = dataSource.unwrap(BoundedDataSource.class);
+        int available = boundedDataSource.getAvailablePermits();
+
+        Connection connection = dataSource.getConnection();
+        assertThat(boundedDataSource.getAvailablePermits()).isEqualTo(available - 1);
+        connection.close();
+        connection.close();
+
+        assertThat(boundedDataSource.getAvailablePermits()).isEqualTo(available);
+        assertThat(boundedDataSource.getAcquireTimeout().toMillis())
+                .isLessThan(dataSource.unwrap(HikariDataSource.class).getConnectionTimeout());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldSerializeTaskUsersWithoutOpenSessionInView() throws Exception {
+        // Без тестовой транзакции каждый запрос работает в своей сессии, как в приложении,
+        // поэтому данные фиксируются и удаляются в конце теста.
+        try {
+            TaskCreateDto dto = new TaskCreateDto();
+            dto.setTitle("Задача вне сессии");
+            dto.setDescription("Описание задачи");
+            dto.setStatus("OPEN");
+            dto.setPriority("LOW");
+
+            String response = mockMvc.perform(post("/api/tasks/create")
+                            .header("Authorization", ownerToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.ownerId").value(owner.getId()))
+                    .andReturn().getResponse().getContentAsString();
+            long taskId = objectMapper.readTree(response).get("id").asLong();
+
+            mockMvc.perform(patch("/api/tasks/" + taskId)
+                            .header("Authorization", ownerToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"performerId\": " + performer.getId() + "}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.performerId").value(performer.getId()));
+
+            mockMvc.perform(get("/api/tasks/" + taskId)
+                            .header("Authorization", ownerToken))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.ownerId").value(owner.getId()))
+                    .andExpect(jsonPath("$.performerId").value(performer.getId()));
+
+            mockMvc.perform(get("/api/tasks/search/status")
+                            .header("Authorization", ownerToken)
+                            .param("status", "OPEN"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].ownerId").value(owner.getId()))
+                    .andExpect(jsonPath("$.content[0].performerId").value(performer.getId()));
+        } finally {
+            taskRepository.deleteAllInBatch();
+            userRepository.deleteAllInBatch();
+        }
+    }
+
+    @Test
+    void shouldMeasureConnectionHoldTimeWithoutOpenSessionInView() throws Exception {
+        assertThat(applicationContext.getBeanNamesForType(OpenEntityManagerInViewInterceptor.class)).isEmpty();
+
+        try (QueryStats stats = QueryStats.open()) {
+            Connection connection = dataSource.getConnection();
+            Thread.sleep(20);
+            connection.close();
+
+            assertThat(stats.getConnectionHeldNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+        }
+
+        Task task = new Task();
+        task.setTitle("Задача для замера соединений");
+        task.setStatus("IN_PROGRESS");
+        task.setPriority("LOW");
+        task.setOwner(owner);
+        taskRepository.save(task);
+
+        mockMvc.perform(get("/api/tasks/" + task.getId())
+                        .header("Authorization", ownerToken))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("sql.connection.held.per.request")
+                .tag("endpoint", "/api/tasks/{id}")
+                .timer().count()).isPositive();
+    }
+
+    private double cacheHits(String region) {
+        return meterRegistry.get("cache.gets").tag("cache", region).tag("result", "hit").functionCounter().count();
+    }
+
+    @Test
+    void shouldServeCachedTaskResponseAndInvalidateItOnUpdate() throws Exception {
+        Task task = new Task();
+        task.setTitle("Задача для кеша ответов");
+        task.setStatus("IN_PROGRESS");
+        task.setPriority("LOW");
+        task.setOwner(owner);
+        taskRepository.save(task);
+        double hits = cacheHits("task-responses");
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/tasks/" + task.getId())
+                            .header("Authorization", ownerToken))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.status").value("IN_PROGRESS"));
+        }
+        assertThat(cacheHits("task-responses")).isEqualTo(hits + 1);
+
+        mockMvc.perform(patch("/api/tasks/" + task.getId() + "/status")
+                        .header("Authorization", ownerToken)
+                        .param("status", "COMPLETED"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/tasks/" + task.getId())
+                        .header("Authorization", ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForUnchangedTask() throws Exception {
+        Task task = new Task();
+        task.setTitle("Задача для условных запросов");
+        task.setStatus("IN_PROGRESS");
+        task.setPriority("LOW");
+        task.setOwner(owner);
+        taskRepository.save(task);
+
+        String etag = mockMvc.perform(get("/api/tasks/" + task.getId())
+                        .header("Authorization", ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", Matchers.containsString("no-cache")))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).startsWith("\"task-" + task.getId() + "-");
+        double hits = cacheHits("task-responses");
+
+        try (StatementBudget budget = StatementBudget.start()) {
+            mockMvc.perform(get("/api/tasks/" + task.getId())
+                            .header("Authorization", ownerToken)
+                            .header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", etag))
+                    .andExpect(content().string(""));
+
+            budget.assertAtMost(0);
+        }
+        assertThat(cacheHits("task-responses")).isEqualTo(hits + 1);
+
+        mockMvc.perform(patch("/api/tasks/" + task.getId() + "/status")
+                        .header("Authorization", ownerToken)
+                        .param("status", "COMPLETED"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/tasks/" + task.getId())
+                        .header("Authorization", ownerToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", Matchers.not(etag)))
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForUnchangedTaskPage() throws Exception {
+        Task first = new Task();
+        first.setTitle("Первая задача на странице");
+        first.setStatus("IN_PROGRESS");
+        first.setPriority("LOW");
+        first.setOwner(owner);
+        taskRepository.save(first);
+
+        String etag = mockMvc.perform(get("/api/tasks/search")
+                        .header("Authorization", ownerToken)
+                        .param("titlePart", "на странице"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).startsWith("W/\"task-p0-s10-");
+
+        mockMvc.perform(get("/api/tasks/search")
+                        .header("Authorization", ownerToken)
+                        .header("If-None-Match", etag)
+                        .param("titlePart", "на странице"))
+                .andExpect(status().isNotModified());
+
+        Task task = new Task();
+        task.setTitle("Вторая задача на странице");
+        task.setStatus("IN_PROGRESS");
+        task.setPriority("LOW");
+        task.setOwner(owner);
+        taskRepository.save(task);
+
+        mockMvc.perform(get("/api/tasks/search")
+                        .header("Authorization", ownerToken)
+                        .header("If-None-Match", etag)
+                        .param("titlePart", "на странице"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", Matchers.not(etag)));
+    }
+
+    @Test
+    void shouldApplyTaskUpdateOnlyForCurrentIfMatchVersion() throws Exception {
+        Task task = new Task();
+        task.setTitle("Задача с версией");
+        task.setStatus("IN_PROGRESS");
+        task.setPriority("LOW");
+        task.setOwner(owner);
+        taskRepository.save(task);
+
+        String etag = mockMvc.perform(get("/api/tasks/" + task.getId())
+                        .header("Authorization", ownerToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isEqualTo("\"task-" + task.getId() + "-v0\"");
+
+        String updatedEtag = mockMvc.perform(patch("/api/tasks/" + task.getId())
+                        .header("Authorization", ownerToken)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\": \"COMPLETED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(updatedEtag).isEqualTo("\"task-" + task.getId() + "-v1\"");
+
+        mockMvc.perform(patch("/api/tasks/" + task.getId())
+                        .header("Authorization", ownerToken)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\": \"CANCELLED\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/tasks/" + task.getId())
+                        .header("Authorization", ownerToken)
+                        .header("If-None-Match", updatedEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void shouldAnswerConflictWhenTaskChangedBetweenReadAndWrite() throws Exception {
+        Task task = new Task();
+        task.setTitle("Задача с параллельным изменением");
+        task.setStatus("IN_PROGRESS");
+        task.setPriority("LOW");
+        task.setOwner(owner);
+        taskRepository.saveAndFlush(task);
+
+        // Другая транзакция увеличивает версию в базе, а загруженная сущность остается в версии 0
+        entityManager.createNativeQuery("UPDATE tasks SET version = version + 1 WHERE id = :id")
+                .setParameter("id", task.getId())
+                .executeUpdate();
+
+        mockMvc.perform(patch("/api/tasks/" + task.getId())
+                        .header("Authorization", ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\": \"COMPLETED\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void shouldRejectIfMatchUpdateWhenTaskChangedBetweenReadAndWrite() throws Exception {
+        Task task = new Task();
+        task.setTitle("Задача с параллельным условным изменением");
+        task.setStatus("IN_PROGRESS");
+        task.setPriority("LOW");
+        task.setOwner(owner);
+        taskRepository.saveAndFlush(task);
+
+        entityManager.createNativeQuery("UPDATE tasks SET version = version + 1 WHERE id = :id")
+                .setParameter("id", task.getId())
+                .executeUpdate();
+
+        mockMvc.perform(patch("/api/tasks/" + task.getId())
+                        .header("Authorization", ownerToken)
+                        .header("If-Match", "\"task-" + task.getId() + "-v0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\": \"COMPLETED\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+}
@@ -5,7 +5,15 @@ import com.tema_kuznetsov.task_manager.dto.user.UserUpdateDto;
 import com.tema_kuznetsov.task_manager.models.AppUser;
 import com.tema_kuznetsov.task_manager.models.enums.UserRole;
 import com.tema_kuznetsov.task_manager.repositories.UserRepository;
+import com.tema_kuznetsov.task_manager.security.CustomUserDetails;
 import com.tema_kuznetsov.task_manager.security.jwt.JwtService;
+import com.tema_kuznetsov.task_manager.util.cache.EntityCacheInvalidationEvent;
+import com.tema_kuznetsov.task_manager.util.cache.EntityCacheInvalidator;
+import com.tema_kuznetsov.task_manager.util.concurrency.AdaptiveConcurrencyLimiter;
+import com.tema_kuznetsov.task_manager.util.concurrency.RequestPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,13 +23,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 import static com.tema_kuznetsov.task_manager.models.enums.UserRole.MODERATOR;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -30,6 +45,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ExtendWith(SpringExtension.class)
 @AutoConfigureMockMvc
 @Transactional
+@RecordApplicationEvents
 public class UserControllerIntegrationTest {
 
     @Autowired
@@ -47,6 +63,21 @@ public class UserControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityCacheInvalidator entityCacheInvalidator;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
     private AppUser adminUser;
     private AppUser moderatorUser;
     private AppUser simpleUser;
@@ -548,6 +579,69 @@ public class UserControllerIntegrationTest {
                 .andExpect(jsonPath("$.role").value("MODERATOR"));
     }
 
+    @Test
+    void shouldAnswerNotModifiedForUnchangedUser() throws Exception {
+        String etag = mockMvc.perform(get("/api/users/" + simpleUser.getId())
+                        .header(HttpHeaders.AUTHORIZATION, adminToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"user-" + simpleUser.getId() + "-");
+
+        mockMvc.perform(get("/api/users/" + simpleUser.getId())
+                        .header(HttpHeaders.AUTHORIZATION, adminToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(patch("/api/users/" + simpleUser.getId() + "/role")
+                        .header(HttpHeaders.AUTHORIZATION, adminToken)
+                        .param("role", "MODERATOR"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/" + simpleUser.getId())
+                        .header(HttpHeaders.AUTHORIZATION, adminToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(etag)))
+                .andExpect(jsonPath("$.role").value("MODERATOR"));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForUnchangedCurrentUser() throws Exception {
+        String etag = mockMvc.perform(get("/api/users/me")
+                        .header(HttpHeaders.AUTHORIZATION, userToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"user-" + simpleUser.getId() + "-");
+
+        mockMvc.perform(get("/api/users/me")
+                        .header(HttpHeaders.AUTHORIZATION, userToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldRejectStatelessTokenAfterRoleChange() throws Exception {
+        String statelessToken = "Bearer " + jwtService.generateToken(new CustomUserDetails(moderatorUser,
+                List.of(new SimpleGrantedAuthority("ROLE_" + moderatorUser.getRole()))));
+
+        mockMvc.perform(get("/api/users/" + simpleUser.getId())
+                        .header(HttpHeaders.AUTHORIZATION, statelessToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/users/" + moderatorUser.getId() + "/role")
+                        .header(HttpHeaders.AUTHORIZATION, adminToken)
+                        .param("role", "USER"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/" + simpleUser.getId())
+                        .header(HttpHeaders.AUTHORIZATION, statelessToken))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void shouldReturnBadRequestWhenTryingToChangeOwnRole() throws Exception {
         mockMvc.perform(patch("/api/users/" + adminUser.getId() + "/role")
@@ -638,4 +732,81 @@ public class UserControllerIntegrationTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Некорректный идентификатор"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldShedListingBeforeCriticalRequestsWhenOverloaded() throws Exception {
+        int occupied = 0;
+        try {
+            while (occupied < concurrencyLimiter.getLimit() / 2) {
+                concurrencyLimiter.tryAcquire(RequestPriority.CRITICAL);
+                occupied++;
+            }
+
+            mockMvc.perform(get("/api/users/list")
+                            .header(HttpHeaders.AUTHORIZATION, adminToken))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+
+            mockMvc.perform(get("/api/users/me")
+                            .header(HttpHeaders.AUTHORIZATION, adminToken))
+                    .andExpect(status().isOk());
+        } finally {
+            for (int i = 0; i < occupied; i++) {
+                concurrencyLimiter.release();
+            }
+        }
+    }
+
+    @Test
+    void shouldLoadUserByEmailFromSecondLevelCache() {
+        entityManager.flush();
+        entityManager.clear();
+        double naturalIdHits = cacheHits(AppUser.NATURAL_ID_CACHE_REGION);
+
+        try {
+            assertThat(userRepository.findUserByEmail(simpleUser.getEmail())).isPresent();
+            entityManager.clear();
+            assertThat(userRepository.findUserByEmail(simpleUser.getEmail()))
+                    .hasValueSatisfying(user -> assertThat(user.getId()).isEqualTo(simpleUser.getId()));
+
+            assertThat(cacheHits(AppUser.NATURAL_ID_CACHE_REGION)).isGreaterThan(naturalIdHits);
+        } finally {
+            entityManager.getEntityManagerFactory().getCache().evictAll();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldAnnounceCommittedUserChangesForOtherNodes() throws Exception {
+        // Событие публикуется только после коммита, поэтому тест работает без тестовой транзакции
+        // и удаляет зафиксированных пользователей в конце.
+        try {
+            mockMvc.perform(patch("/api/users/" + simpleUser.getId() + "/role")
+                            .header(HttpHeaders.AUTHORIZATION, adminToken)
+                            .param("role", "MODERATOR"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(delete("/api/users/by-login/" + moderatorUser.getLogin())
+                            .header(HttpHeaders.AUTHORIZATION, adminToken))
+                    .andExpect(status().isNoContent());
+
+            assertThat(applicationEvents.stream(EntityCacheInvalidationEvent.class)).contains(
+                    new EntityCacheInvalidationEvent(AppUser.class.getName(), simpleUser.getId()),
+                    new EntityCacheInvalidationEvent(AppUser.class.getName(), moderatorUser.getId()));
+
+            Cache cache = entityManager.getEntityManagerFactory().getCache();
+            assertThat(userRepository.findById(simpleUser.getId())).isPresent();
+            assertThat(cache.contains(AppUser.class, simpleUser.getId())).isTrue();
+
+            entityCacheInvalidator.apply(new EntityCacheInvalidationEvent(AppUser.class.getName(), simpleUser.getId()));
+
+            assertThat(cache.contains(AppUser.class, simpleUser.getId())).isFalse();
+        } finally {
+            userRepository.deleteAllInBatch();
+            entityManager.getEntityManagerFactory().getCache().evictAll();
+        }
+    }
+
+    private double cacheHits(String region) {
+        return meterRegistry.get("cache.gets").tag("cache", region).tag("result", "hit").functionCounter().count();
+    }
+}
@@ -0,0 +1 @@
+CREATE ALIAS IF NOT EXISTS word_similarity FOR "com.tema_kuznetsov.task_manager.PgTrgmFunctions.wordSimilarity";